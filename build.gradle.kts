@@ -1,3 +1,5 @@
+import org.springframework.boot.gradle.tasks.run.BootRun
+
 plugins {
     `java-library`
     jacoco
@@ -26,17 +28,26 @@ dependencies {
     val springdocOpenAPIVersion: String by project
     val keycloakVersion: String by project
     val testcontainersKeycloakVersion: String by project
+    val roaringBitmapVersion: String by project
 
     implementation(platform(org.springframework.boot.gradle.plugin.SpringBootPlugin.BOM_COORDINATES))
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-mongodb")
     implementation("org.springframework.boot:spring-boot-starter-security")
+    implementation("org.springframework.boot:spring-boot-starter-webflux")
+    implementation("org.springframework.boot:spring-boot-starter-data-mongodb-reactive")
+    implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("org.roaringbitmap:RoaringBitmap:$roaringBitmapVersion")
 
     implementation(platform("org.keycloak.bom:keycloak-adapter-bom:$keycloakVersion"))
     implementation("org.keycloak:keycloak-spring-boot-starter")
 
     implementation("com.fasterxml.jackson.module:jackson-module-parameter-names")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
     implementation("org.springdoc:springdoc-openapi-ui:$springdocOpenAPIVersion")
     implementation("org.springdoc:springdoc-openapi-data-rest:$springdocOpenAPIVersion")
 
@@ -44,6 +55,8 @@ dependencies {
     testImplementation("org.testcontainers:junit-jupiter")
     testImplementation("org.testcontainers:mongodb")
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("org.apache.httpcomponents:httpclient")
+    testImplementation("org.awaitility:awaitility")
     testImplementation("org.keycloak:keycloak-admin-client:${keycloakVersion}")
     testImplementation("com.github.dasniko:testcontainers-keycloak:$testcontainersKeycloakVersion")
 }
@@ -54,7 +67,18 @@ tasks.withType<JavaCompile> {
 }
 
 tasks.withType<Test> {
-    useJUnitPlatform()
+    val soak = name == "soakTest"
+    useJUnitPlatform {
+        if (soak) includeTags("soak") else excludeTags("soak")
+    }
+}
+
+tasks.register<Test>("soakTest") {
+    group = "verification"
+    description = "Runs the soak tests, which send millions of requests and watch the heap"
+    maxHeapSize = "512m"
+    systemProperty("soak.requests", providers.gradleProperty("soakRequests").getOrElse("1000000"))
+    shouldRunAfter(tasks.test)
 }
 
 tasks.register<Test>("testsOn18") {
@@ -63,10 +87,35 @@ tasks.register<Test>("testsOn18") {
     })
 }
 
+/*
+ * Sources keep targeting Java 17, since Spring Framework 5.3 can't read
+ * newer class files, but virtual threads need a Java 21 runtime.
+ */
+val java21Launcher = javaToolchains.launcherFor {
+    languageVersion.set(JavaLanguageVersion.of(21))
+}
+
+tasks.register<Test>("testsOn21") {
+    javaLauncher.set(java21Launcher)
+}
+
+tasks.register<BootRun>("bootRunOnVirtualThreads") {
+    group = "application"
+    description = "Runs the application on Java 21 with the virtual-threads profile"
+    mainClass.set(springBoot.mainClass)
+    classpath = sourceSets.main.get().runtimeClasspath
+    javaLauncher.set(java21Launcher)
+    args("--spring.profiles.active=virtual-threads")
+}
+
 tasks.test {
     finalizedBy(tasks.jacocoTestReport)
 }
 
+jacoco {
+    toolVersion = "0.8.11"
+}
+
 tasks.jacocoTestReport {
     reports {
         xml.required.set(true)
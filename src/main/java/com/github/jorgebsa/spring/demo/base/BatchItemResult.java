@@ -0,0 +1,32 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+
+import java.util.List;
+import java.util.function.Function;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult<T>(int index,
+                                 int status,
+                                 T result,
+                                 List<Violation> errors) {
+
+    public static <T> BatchItemResult<T> success(int index, int status, T result) {
+        return new BatchItemResult<>(index, status, result, null);
+    }
+
+    public static <T> BatchItemResult<T> failure(int index, int status, List<Violation> errors) {
+        return new BatchItemResult<>(index, status, null, errors);
+    }
+
+    @JsonIgnore
+    public boolean isSuccess() {
+        return errors == null;
+    }
+
+    public <R> BatchItemResult<R> map(Function<T, R> mapper) {
+        return new BatchItemResult<>(index, status, result == null ? null : mapper.apply(result), errors);
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import java.util.List;
+
+public record BatchResponse<T>(int succeeded,
+                               int failed,
+                               List<BatchItemResult<T>> items) {
+
+    public static <T> BatchResponse<T> of(List<BatchItemResult<T>> items) {
+        var succeeded = (int) items.stream().filter(BatchItemResult::isSuccess).count();
+        return new BatchResponse<>(succeeded, items.size() - succeeded, items);
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import com.github.jorgebsa.spring.demo.validation.Validatable;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
+
+public record BatchUpdateNoteRequest(String id, String content, long version) implements Validatable {
+
+    public BatchUpdateNoteRequest(@NotBlank String id, @NotBlank String content, @Positive long version) {
+        validate(id, content, version);
+
+        this.id = id;
+        this.content = content;
+        this.version = version;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.jorgebsa.spring.demo.exception.InvalidParameterException;
+import com.github.jorgebsa.spring.demo.validation.Validatable;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+/*
+ * One edit of a note's content. Positions count code points, not chars,
+ * the same way Mongo's string operators do, and a range reaching past
+ * the end of the content stops at its end.
+ */
+public record ContentOperation(Type op, String text, Integer start, Integer end) implements Validatable {
+
+    public enum Type {
+        @JsonProperty("append") APPEND,
+        @JsonProperty("prepend") PREPEND,
+        @JsonProperty("replace") REPLACE
+    }
+
+    public ContentOperation(@NotNull Type op, @NotNull String text, @PositiveOrZero Integer start, @PositiveOrZero Integer end) {
+        validate(op, text, start, end);
+        if (op == Type.REPLACE) {
+            if (start == null || end == null) {
+                throw new InvalidParameterException(start == null ? "start" : "end", "must not be null when replacing");
+            }
+            if (end < start) {
+                throw new InvalidParameterException("end", "must not be less than start");
+            }
+        } else if (start != null || end != null) {
+            throw new InvalidParameterException(start != null ? "start" : "end", "only applies when replacing");
+        }
+
+        this.op = op;
+        this.text = text;
+        this.start = start;
+        this.end = end;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import com.github.jorgebsa.spring.demo.validation.Violation;
+
+import java.util.List;
+
+public record ImportError(long line, int status, List<Violation> errors) {
+
+}
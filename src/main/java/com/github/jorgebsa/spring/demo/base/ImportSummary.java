@@ -0,0 +1,15 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import java.util.List;
+
+/**
+ * Outcome of an NDJSON import. Only the first errors are reported, so
+ * {@code errorsTruncated} tells whether more lines failed than listed.
+ */
+public record ImportSummary(long lines,
+                            long imported,
+                            long failed,
+                            List<ImportError> errors,
+                            boolean errorsTruncated) {
+
+}
@@ -1,9 +1,16 @@
 package com.github.jorgebsa.spring.demo.base;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+ * Fields are nullable so that a sparse fieldset can leave out whatever the
+ * client didn't ask for. Absent fields aren't serialized at all.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record NoteDTO(String id,
                       String username,
                       String content,
-                      long createdAt,
-                      long lastModifiedAt,
-                      long version) {
+                      Long createdAt,
+                      Long lastModifiedAt,
+                      Long version) {
 }
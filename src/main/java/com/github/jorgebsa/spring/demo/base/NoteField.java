@@ -0,0 +1,66 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import com.github.jorgebsa.spring.demo.exception.InvalidParameterException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public enum NoteField {
+
+    ID("id"),
+    USERNAME("username"),
+    CONTENT("content"),
+    CREATED_AT("createdAt"),
+    LAST_MODIFIED_AT("lastModifiedAt"),
+    VERSION("version");
+
+    public static final Set<NoteField> ALL = Collections.unmodifiableSet(EnumSet.allOf(NoteField.class));
+
+    private static final String PARAMETER = "fields";
+
+    private final String property;
+
+    NoteField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Parses a comma separated list of field names, such as {@code id,version}.
+     * A missing or blank list selects all fields.
+     */
+    public static Set<NoteField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        var parsed = EnumSet.noneOf(NoteField.class);
+        for (var name : fields.split(",")) {
+            parsed.add(fromProperty(name.trim()));
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    /**
+     * The properties to project when reading notes, or an empty list
+     * when all of them are needed and no projection should be applied.
+     */
+    public static List<String> properties(Set<NoteField> fields) {
+        if (fields.containsAll(ALL)) {
+            return List.of();
+        }
+        return fields.stream().map(NoteField::property).toList();
+    }
+
+    private static NoteField fromProperty(String property) {
+        return Stream.of(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new InvalidParameterException(PARAMETER, "unsupported value: " + property));
+    }
+}
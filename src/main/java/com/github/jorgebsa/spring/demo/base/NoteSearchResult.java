@@ -0,0 +1,6 @@
+package com.github.jorgebsa.spring.demo.base;
+
+public record NoteSearchResult(NoteDTO note,
+                               Float score) {
+
+}
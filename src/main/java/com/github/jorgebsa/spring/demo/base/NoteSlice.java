@@ -0,0 +1,8 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import java.util.List;
+
+public record NoteSlice(List<NoteDTO> content,
+                        String nextCursor) {
+
+}
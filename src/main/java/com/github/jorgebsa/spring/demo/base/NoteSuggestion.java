@@ -0,0 +1,7 @@
+package com.github.jorgebsa.spring.demo.base;
+
+public record NoteSuggestion(String id,
+                             String username,
+                             String snippet) {
+
+}
@@ -0,0 +1,21 @@
+package com.github.jorgebsa.spring.demo.base;
+
+import com.github.jorgebsa.spring.demo.validation.Validatable;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public record PatchNoteRequest(long version, List<ContentOperation> operations) implements Validatable {
+
+    public static final int MAX_OPERATIONS = 100;
+
+    public PatchNoteRequest(@Positive long version, @NotEmpty @Size(max = MAX_OPERATIONS) List<ContentOperation> operations) {
+        validate(version, operations);
+
+        this.version = version;
+        this.operations = List.copyOf(operations);
+    }
+
+}
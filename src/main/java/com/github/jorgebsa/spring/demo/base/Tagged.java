@@ -0,0 +1,7 @@
+package com.github.jorgebsa.spring.demo.base;
+
+/**
+ * A response body along with the strong ETag of its representation.
+ */
+public record Tagged<T>(T body, String eTag) {
+}
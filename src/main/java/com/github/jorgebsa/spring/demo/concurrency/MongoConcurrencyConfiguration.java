@@ -0,0 +1,33 @@
+package com.github.jorgebsa.spring.demo.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/*
+ * Bounds how many Mongo operations may run at once. Virtual threads make
+ * requests nearly free, so without a bound they would all pile up on the
+ * database instead. Every operation checks a connection out of the
+ * driver's pool, whether it goes through a repository, a template or a
+ * collection obtained from one, so the bound is the pool's size, and an
+ * operation that can't get a connection within the acquire timeout fails
+ * rather than waiting indefinitely.
+ */
+@Configuration
+@ConditionalOnExpression("${notes.mongo.max-concurrent-operations:0} > 0")
+class MongoConcurrencyConfiguration {
+
+    @Bean
+    MongoClientSettingsBuilderCustomizer mongoConcurrencyLimitCustomizer(@Value("${notes.mongo.max-concurrent-operations}") int maxConcurrentOperations,
+                                                                        @Value("${notes.mongo.acquire-timeout:2s}") Duration acquireTimeout) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxConcurrentOperations)
+                .maxWaitTime(acquireTimeout.toMillis(), MILLISECONDS));
+    }
+}
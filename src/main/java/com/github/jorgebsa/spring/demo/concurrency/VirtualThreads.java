@@ -0,0 +1,24 @@
+package com.github.jorgebsa.spring.demo.concurrency;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * The sources still target Java 17, where virtual threads don't exist, so
+ * the JDK 21 factory is looked up at runtime instead of being linked.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static ExecutorService newPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    "Virtual threads require Java 21 or newer, but the application runs on Java " + Runtime.version().feature(), e
+            );
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.jorgebsa.spring.demo.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/*
+ * Runs every servlet request, and therefore every blocking Mongo call made
+ * by the services, on its own virtual thread instead of Tomcat's pool. The
+ * executor is Tomcat's alone, it isn't a bean, since any executor bean
+ * would replace the task executor Boot configures for everything else.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "notes.virtual-threads", name = "enabled", havingValue = "true")
+class VirtualThreadsConfiguration {
+
+    @Bean
+    TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        var executor = VirtualThreads.newPerTaskExecutor();
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean
+    PinnedVirtualThreadMonitor pinnedVirtualThreadMonitor(MeterRegistry meterRegistry,
+                                                          @Value("${notes.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new PinnedVirtualThreadMonitor(meterRegistry, threshold);
+    }
+}
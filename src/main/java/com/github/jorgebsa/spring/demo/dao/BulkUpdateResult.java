@@ -0,0 +1,16 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What an unordered bulk update did to each of its updates, by position.
+ *
+ * @param applied  the updates that were written
+ * @param failures the error of each update that could not be written
+ * @param missed   the owner, version and last modification of the notes an update
+ *                 didn't match, by id, leaving out the notes that don't exist
+ */
+public record BulkUpdateResult(Set<Integer> applied, Map<Integer, WriteFailure> failures, Map<String, Note> missed) {
+
+}
@@ -0,0 +1,41 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+/**
+ * An edit of a note's content, applied to whatever the content is at the
+ * time. Positions count code points, and a range reaching past the end of
+ * the content stops at its end.
+ */
+public record ContentEdit(Kind kind, String text, int start, int end) {
+
+    public enum Kind {
+        APPEND, PREPEND, REPLACE
+    }
+
+    public static ContentEdit append(String text) {
+        return new ContentEdit(Kind.APPEND, text, 0, 0);
+    }
+
+    public static ContentEdit prepend(String text) {
+        return new ContentEdit(Kind.PREPEND, text, 0, 0);
+    }
+
+    public static ContentEdit replace(int start, int end, String text) {
+        return new ContentEdit(Kind.REPLACE, text, start, end);
+    }
+
+    /**
+     * Applies the edit in the JVM, exactly the way {@link NoteQueries#contentEdits} applies it in Mongo.
+     */
+    String applyTo(String content) {
+        return switch (kind) {
+            case APPEND -> content + text;
+            case PREPEND -> text + content;
+            case REPLACE -> {
+                var length = content.codePointCount(0, content.length());
+                var from = content.offsetByCodePoints(0, Math.min(start, length));
+                var to = content.offsetByCodePoints(0, Math.min(end, length));
+                yield content.substring(0, from) + text + content.substring(to);
+            }
+        };
+    }
+}
@@ -0,0 +1,5 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+public record ContentUpdate(String id, long version, String content) {
+
+}
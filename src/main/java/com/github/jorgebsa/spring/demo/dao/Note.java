@@ -4,13 +4,22 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import javax.validation.constraints.NotBlank;
 import java.time.Instant;
 import java.util.Objects;
 
 @Document("notes")
+@CompoundIndexes({
+        @CompoundIndex(name = "username_lastModifiedAt_id", def = "{'username': 1, 'lastModifiedAt': 1, '_id': 1}", background = true),
+        @CompoundIndex(name = "lastModifiedAt_id", def = "{'lastModifiedAt': 1, '_id': 1}", background = true),
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': 1, '_id': 1}", background = true)
+})
 public class Note {
 
     @Id
@@ -28,8 +37,17 @@ public class Note {
     private long version;
 
     @NotBlank
+    @TextIndexed
     private String content;
 
+    /* Only written by NoteContentCodec, for content the text index can't read, and never read back */
+    @TextIndexed
+    private String searchText;
+
+    /* Only read back by text searches, never written */
+    @TextScore
+    private Float score;
+
     public Note() {
     }
 
@@ -90,6 +108,10 @@ public class Note {
         this.content = content;
     }
 
+    public Float getScore() {
+        return score;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
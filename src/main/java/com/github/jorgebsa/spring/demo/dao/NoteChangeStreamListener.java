@@ -0,0 +1,241 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/*
+ * Watches the notes collection and publishes a NoteChangedEvent for every
+ * update, replacement and removal, whichever instance made it, so local
+ * caches can drop what is stale. Inserts are ignored since a note no one
+ * has read yet can't be cached anywhere else.
+ *
+ * The resume token of the last event seen is kept so that a dropped
+ * connection resumes exactly where it stopped. When the token can no
+ * longer be resumed from, because the oplog has rolled past it, whatever
+ * happened in between is lost and every local cache is flushed instead.
+ * The token is not persisted: a restarted instance starts with an empty
+ * cache, so it has nothing to catch up on.
+ */
+@Component
+@ConditionalOnProperty(name = "notes.cache.change-stream.enabled", havingValue = "true")
+class NoteChangeStreamListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteChangeStreamListener.class);
+
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final List<String> WATCHED_OPERATIONS = List.of(
+            OperationType.UPDATE.getValue(),
+            OperationType.REPLACE.getValue(),
+            OperationType.DELETE.getValue(),
+            OperationType.DROP.getValue(),
+            OperationType.RENAME.getValue(),
+            OperationType.DROP_DATABASE.getValue(),
+            OperationType.INVALIDATE.getValue()
+    );
+
+    private static final Set<OperationType> CLOSING_OPERATIONS = Set.of(
+            OperationType.DROP, OperationType.RENAME, OperationType.DROP_DATABASE, OperationType.INVALIDATE
+    );
+
+    /*
+     * Only what tells which note changed and to which version, so updates
+     * and replacements don't ship their content to every instance. The _id
+     * is the resume token, which the stream can't do without.
+     */
+    private static final List<String> PROJECTED_FIELDS = List.of(
+            "_id", "operationType", "documentKey", "updateDescription.updatedFields.version", "fullDocument.version"
+    );
+
+    private final MongoOperations operations;
+    private final ApplicationEventPublisher publisher;
+    private final Duration maxAwaitTime;
+    private final Duration retryDelay;
+
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private Thread thread;
+
+    NoteChangeStreamListener(MongoOperations operations, ApplicationEventPublisher publisher,
+                             @Value("${notes.cache.change-stream.max-await-time:1s}") Duration maxAwaitTime,
+                             @Value("${notes.cache.change-stream.retry-delay:5s}") Duration retryDelay) {
+        this.operations = operations;
+        this.publisher = publisher;
+        this.maxAwaitTime = maxAwaitTime;
+        this.retryDelay = retryDelay;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        thread = new Thread(this::listen, "notes-change-stream");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Listening to changes of the notes collection");
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(maxAwaitTime.multipliedBy(2).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (var cursor = open()) {
+                var open = true;
+                while (running && open) {
+                    open = follow(cursor);
+                }
+            } catch (MongoCommandException e) {
+                if (!flushIfUnresumable(e)) {
+                    retryLater(e);
+                }
+            } catch (MongoException e) {
+                retryLater(e);
+            }
+        }
+    }
+
+    /**
+     * Flushes every local cache when the stream failed because it can no
+     * longer resume, starting over from now.
+     *
+     * @return whether it did, otherwise the stream may just be retried
+     */
+    boolean flushIfUnresumable(MongoCommandException e) {
+        if (e.getErrorCode() != CHANGE_STREAM_HISTORY_LOST && e.getErrorCode() != CHANGE_STREAM_FATAL_ERROR) {
+            return false;
+        }
+        log.warn("Change stream can no longer resume after [{}], flushing local caches", resumeToken, e);
+        resumeToken = null;
+        publisher.publishEvent(NoteChangedEvent.unknown());
+        return true;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        var collection = operations.getCollection(operations.getCollectionName(Note.class));
+        var stream = collection
+                .watch(List.of(
+                        Aggregates.match(Filters.in("operationType", WATCHED_OPERATIONS)),
+                        Aggregates.project(Projections.include(PROJECTED_FIELDS))
+                ))
+                .maxAwaitTime(maxAwaitTime.toMillis(), MILLISECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    /*
+     * Handles at most one change and tells whether the cursor is still
+     * usable. Waiting for a change is bounded by maxAwaitTime so that the
+     * loop notices when the listener is stopped.
+     */
+    private boolean follow(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+        var change = cursor.tryNext();
+        if (change == null) {
+            if (cursor.getResumeToken() != null) {
+                resumeToken = cursor.getResumeToken();
+            }
+            return true;
+        }
+
+        var operation = change.getOperationType();
+        if (CLOSING_OPERATIONS.contains(operation)) {
+            log.warn("Notes collection went through [{}], flushing local caches", operation.getValue());
+            resumeToken = null;
+            publisher.publishEvent(NoteChangedEvent.unknown());
+            return false;
+        }
+
+        var id = idOf(change.getDocumentKey());
+        if (operation == OperationType.DELETE) {
+            publisher.publishEvent(NoteChangedEvent.removed(id));
+        } else {
+            /*
+             * Every change made through the repository bumps the version, so
+             * an update without one, like the content migration's, leaves
+             * the note as it was as far as readers can tell.
+             */
+            var version = versionOf(change);
+            if (version != null) {
+                publisher.publishEvent(new NoteChangedEvent(id, version));
+            }
+        }
+        resumeToken = change.getResumeToken();
+        return true;
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        var id = documentKey.get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    /*
+     * Updates only carry the fields they changed, which includes the
+     * version whenever the update went through the repository.
+     */
+    private static Long versionOf(ChangeStreamDocument<Document> change) {
+        if (change.getUpdateDescription() != null && change.getUpdateDescription().getUpdatedFields() != null) {
+            return numberOrNull(change.getUpdateDescription().getUpdatedFields().get("version"));
+        }
+        if (change.getFullDocument() != null && change.getFullDocument().get("version") instanceof Number version) {
+            return version.longValue();
+        }
+        return null;
+    }
+
+    private static Long numberOrNull(BsonValue value) {
+        return value != null && value.isNumber() ? value.asNumber().longValue() : null;
+    }
+
+    private void retryLater(MongoException e) {
+        if (!running) {
+            return;
+        }
+        log.warn("Change stream of the notes collection failed, retrying in [{}]", retryDelay, e);
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
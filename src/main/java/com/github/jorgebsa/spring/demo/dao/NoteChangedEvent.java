@@ -0,0 +1,19 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A note was changed or removed, possibly by another instance. A missing
+ * version means the note is gone, and a missing id means that any note
+ * may have changed without us knowing which.
+ */
+public record NoteChangedEvent(@Nullable String id, @Nullable Long version) {
+
+    public static NoteChangedEvent removed(String id) {
+        return new NoteChangedEvent(id, null);
+    }
+
+    public static NoteChangedEvent unknown() {
+        return new NoteChangedEvent(null, null);
+    }
+}
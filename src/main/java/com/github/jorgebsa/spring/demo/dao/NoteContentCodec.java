@@ -0,0 +1,219 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/*
+ * Content at or above the threshold is stored deflated, as BinData, with
+ * its codec recorded next to it in contentCodec. Smaller content, and
+ * content deflate can't make smaller, is stored as the plain string, so
+ * it stays readable and text indexed. Content shared with other notes is
+ * replaced by its hash, with the sha256 codec, see SharedNoteContents. A
+ * document without a codec always holds a plain string.
+ *
+ * The text index can't read bytes, so a document whose content isn't
+ * plain also holds the first characters of it under searchText, which is
+ * indexed along with content and never read back.
+ *
+ * Shared content is resolved once the note is mapped, rather than while
+ * its document is decoded, since the reactive stack has to fetch the body
+ * without blocking. Until then the document keeps the hash under
+ * sharedContent, which the note doesn't map.
+ */
+@Component
+class NoteContentCodec {
+
+    static final String CONTENT = "content";
+    static final String CODEC = "contentCodec";
+    static final String DEFLATE = "deflate";
+    static final String SHARED_CONTENT = "sharedContent";
+    static final String SEARCH_TEXT = "searchText";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final SharedNoteContents shared;
+    private final long threshold;
+    private final int level;
+    private final int maxSearchTextLength;
+    private final DistributionSummary ratio;
+    private final Counter originalBytes;
+    private final Counter storedBytes;
+
+    NoteContentCodec(SharedNoteContents shared, MeterRegistry meterRegistry,
+                     @Value("${notes.compression.threshold:16KB}") DataSize threshold,
+                     @Value("${notes.compression.level:6}") int level,
+                     @Value("${notes.search.max-text-length:32768}") int maxSearchTextLength) {
+        this.shared = shared;
+        this.threshold = threshold.toBytes();
+        this.level = level;
+        this.maxSearchTextLength = maxSearchTextLength;
+        this.ratio = DistributionSummary.builder("notes.compression.ratio")
+                .description("Compressed size of note content over its original size")
+                .register(meterRegistry);
+        this.originalBytes = Counter.builder("notes.compression.original")
+                .description("Bytes of note content that were compressed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.storedBytes = Counter.builder("notes.compression.stored")
+                .description("Bytes actually stored for the compressed note content")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    long threshold() {
+        return threshold;
+    }
+
+    StoredContent encode(String content) {
+        if (!shared.shares(content)) {
+            return compress(content);
+        }
+        var reference = shared.reference(content, compress(content));
+        return new StoredContent(reference.value(), reference.codec(), searchText(content));
+    }
+
+    private StoredContent compress(String content) {
+        if (content == null || content.length() < threshold / 3) {
+            return new StoredContent(content, null);
+        }
+        var bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < threshold) {
+            return new StoredContent(content, null);
+        }
+        var compressed = deflate(bytes);
+        if (compressed.length >= bytes.length) {
+            return new StoredContent(content, null);
+        }
+        ratio.record((double) compressed.length / bytes.length);
+        originalBytes.increment(bytes.length);
+        storedBytes.increment(compressed.length);
+        return new StoredContent(new Binary(compressed), DEFLATE, searchText(content));
+    }
+
+    String searchText(String content) {
+        if (content.length() <= maxSearchTextLength) {
+            return content;
+        }
+        /* Never splits a surrogate pair */
+        var end = Character.isHighSurrogate(content.charAt(maxSearchTextLength - 1)) ? maxSearchTextLength - 1 : maxSearchTextLength;
+        return content.substring(0, end);
+    }
+
+    String decode(Object stored, String codec) {
+        if (codec == null) {
+            return (String) stored;
+        }
+        if (!DEFLATE.equals(codec)) {
+            throw new IllegalStateException("Unknown note content codec: " + codec);
+        }
+        return new String(inflate(((Binary) stored).getData()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the plain content of a document about to be written with its stored form.
+     */
+    void encodeIn(Document document) {
+        if (document.get(CONTENT) instanceof String content) {
+            var stored = encode(content);
+            document.put(CONTENT, stored.value());
+            if (stored.codec() == null) {
+                document.remove(CODEC);
+            } else {
+                document.put(CODEC, stored.codec());
+            }
+            if (stored.searchText() == null) {
+                document.remove(SEARCH_TEXT);
+            } else {
+                document.put(SEARCH_TEXT, stored.searchText());
+            }
+        }
+    }
+
+    /**
+     * Replaces the stored content of a document just read with the plain one.
+     */
+    void decodeIn(Document document) {
+        var codec = document.getString(CODEC);
+        if (SharedNoteContents.SHA256.equals(codec) && document.containsKey(CONTENT)) {
+            document.put(SHARED_CONTENT, document.remove(CONTENT));
+        } else if (codec != null && document.containsKey(CONTENT)) {
+            document.put(CONTENT, decode(document.get(CONTENT), codec));
+        }
+        document.remove(CODEC);
+        document.remove(SEARCH_TEXT);
+    }
+
+    /**
+     * Sets the shared content of a note mapped from a document decoded by {@link #decodeIn(Document)}.
+     */
+    Note resolveIn(Note note, Document document) {
+        if (document.get(SHARED_CONTENT) instanceof Binary hash) {
+            note.setContent(shared.find(hash, body -> decode(body.value(), body.codec())));
+        }
+        return note;
+    }
+
+    /**
+     * Same as {@link #resolveIn(Note, Document)}, without blocking.
+     */
+    Mono<Note> resolveInReactively(Note note, Document document) {
+        if (document.get(SHARED_CONTENT) instanceof Binary hash) {
+            return shared.findReactively(hash, body -> decode(body.value(), body.codec()))
+                    .map(content -> {
+                        note.setContent(content);
+                        return note;
+                    });
+        }
+        return Mono.just(note);
+    }
+
+    private byte[] deflate(byte[] bytes) {
+        var deflater = new Deflater(level);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            var out = new ByteArrayOutputStream(bytes.length / 4);
+            var buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            var out = new ByteArrayOutputStream(bytes.length * 4);
+            var buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                var inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated deflated note content");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted deflated note content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
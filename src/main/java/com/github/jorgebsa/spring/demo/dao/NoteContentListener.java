@@ -0,0 +1,43 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+import org.springframework.stereotype.Component;
+
+/*
+ * Notes are encoded right before their document is written and decoded
+ * right after it is read, before it is mapped, so the rest of the
+ * application only ever sees plain content. Updates don't go through
+ * these events, the repository encodes the content they set itself.
+ * Shared content is only resolved once the note is mapped, by the
+ * callback of whichever template read it, see ReactiveNoteContentCallback.
+ */
+@Component
+class NoteContentListener extends AbstractMongoEventListener<Note> implements AfterConvertCallback<Note> {
+
+    private final NoteContentCodec codec;
+
+    NoteContentListener(NoteContentCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Note> event) {
+        if (event.getDocument() != null) {
+            codec.encodeIn(event.getDocument());
+        }
+    }
+
+    @Override
+    public void onAfterLoad(AfterLoadEvent<Note> event) {
+        codec.decodeIn(event.getDocument());
+    }
+
+    @Override
+    public Note onAfterConvert(Note note, Document document, String collection) {
+        return codec.resolveIn(note, document);
+    }
+}
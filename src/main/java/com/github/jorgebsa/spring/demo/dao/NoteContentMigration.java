@@ -0,0 +1,105 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Updates;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.github.jorgebsa.spring.demo.dao.NoteContentCodec.CODEC;
+import static com.github.jorgebsa.spring.demo.dao.NoteContentCodec.CONTENT;
+import static com.github.jorgebsa.spring.demo.dao.NoteContentCodec.SEARCH_TEXT;
+
+/*
+ * Notes written before compression existed, or while the threshold was
+ * higher, keep their plain content until they are updated. This job
+ * compresses them in the background once the application is ready, so
+ * startup doesn't wait on it and a refresh of a child context doesn't
+ * start it again. Each note is only rewritten if it is still at the
+ * version that was read, so a concurrent update always wins, and neither
+ * its version nor its last modification change since its content, as
+ * readers see it, doesn't.
+ *
+ * Finding them takes a collection scan, so once a deployment is migrated
+ * the job can be turned off.
+ */
+@Component
+@ConditionalOnProperty(name = "notes.compression.migration.enabled", havingValue = "true", matchIfMissing = true)
+class NoteContentMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteContentMigration.class);
+
+    private final MongoOperations operations;
+    private final NoteContentCodec codec;
+    private final TaskScheduler scheduler;
+    private final int batchSize;
+
+    NoteContentMigration(MongoOperations operations, NoteContentCodec codec, TaskScheduler scheduler,
+                         @Value("${notes.compression.migration.batch-size:100}") int batchSize) {
+        this.operations = operations;
+        this.codec = codec;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onStartup() {
+        scheduler.schedule(this::migrate, Instant.now());
+    }
+
+    /**
+     * @return how many notes were compressed
+     */
+    long migrate() {
+        var collection = operations.getCollection(operations.getCollectionName(Note.class));
+        long migrated = 0;
+        long incompressible = 0;
+        try (var cursor = collection.find(uncompressed()).projection(Projections.include(CONTENT, "version")).batchSize(batchSize).cursor()) {
+            while (cursor.hasNext()) {
+                var document = cursor.next();
+                var stored = codec.encode(document.getString(CONTENT));
+                if (stored.codec() == null) {
+                    incompressible++;
+                    continue;
+                }
+                var result = collection.updateOne(
+                        Filters.and(
+                                Filters.eq("_id", document.get("_id")),
+                                Filters.eq("version", document.get("version")),
+                                Filters.type(CONTENT, BsonType.STRING)
+                        ),
+                        Updates.combine(Updates.set(CONTENT, stored.value()), Updates.set(CODEC, stored.codec()), Updates.set(SEARCH_TEXT, stored.searchText()))
+                );
+                migrated += result.getModifiedCount();
+            }
+        }
+        if (migrated > 0 || incompressible > 0) {
+            log.info("Compressed the content of [{}] notes, [{}] more were too large but incompressible", migrated, incompressible);
+        } else {
+            log.debug("No note content left to compress");
+        }
+        return migrated;
+    }
+
+    private Bson uncompressed() {
+        var length = new Document("$strLenBytes", "$" + CONTENT);
+        return Filters.and(
+                Filters.exists(CODEC, false),
+                Filters.type(CONTENT, BsonType.STRING),
+                Filters.expr(new Document("$gte", List.of(length, codec.threshold())))
+        );
+    }
+}
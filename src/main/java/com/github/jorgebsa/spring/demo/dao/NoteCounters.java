@@ -0,0 +1,40 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Note totals kept up to date by the writes themselves, so reading them
+ * doesn't require counting the notes collection.
+ */
+public interface NoteCounters {
+
+    /**
+     * Atomically adds each delta to its owner's total and their sum to the global one.
+     */
+    void increment(Map<String, Long> deltas);
+
+    default void increment(String username, long delta) {
+        increment(Map.of(username, delta));
+    }
+
+    /**
+     * Same as {@link #increment(Map)}, without blocking.
+     */
+    Mono<Void> incrementReactively(Map<String, Long> deltas);
+
+    default Mono<Void> incrementReactively(String username, long delta) {
+        return incrementReactively(Map.of(username, delta));
+    }
+
+    long total();
+
+    long of(String username);
+
+    /**
+     * Recounts the notes collection and overwrites every counter with the
+     * result, correcting whatever drift accumulated since the last run.
+     */
+    void reconcile();
+}
@@ -0,0 +1,151 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/*
+ * Every counter is a document of the note_counters collection holding a
+ * single count, one per owner and one for all notes. Writes bump them with
+ * upserting $inc operations, which are atomic per document, so concurrent
+ * writers never lose each other's increments.
+ *
+ * A note write and its counter updates are separate operations, so a
+ * crash in between, or a write that bypasses the services, leaves the
+ * counters off. Reconciling periodically bounds how long that drift lasts.
+ * Increments racing with a reconciliation may be overwritten by it, which
+ * the next run corrects in turn.
+ *
+ * Reconciling groups the whole notes collection, so the run on startup
+ * happens in the background, and deployments starting many instances at
+ * once can leave it to the periodic runs instead.
+ */
+@Repository
+class NoteCountersImpl implements NoteCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteCountersImpl.class);
+
+    private static final String COLLECTION = "note_counters";
+
+    private static final String COUNT = "count";
+    private static final String TOTAL_ID = "total";
+    private static final String USER_PREFIX = "user:";
+
+    private final MongoOperations operations;
+    private final ReactiveMongoOperations reactiveOperations;
+    private final TaskScheduler scheduler;
+    private final boolean reconcileOnStartup;
+
+    NoteCountersImpl(MongoOperations operations, ReactiveMongoOperations reactiveOperations, TaskScheduler scheduler,
+                     @Value("${notes.counters.reconcile-on-startup:true}") boolean reconcileOnStartup) {
+        this.operations = operations;
+        this.reactiveOperations = reactiveOperations;
+        this.scheduler = scheduler;
+        this.reconcileOnStartup = reconcileOnStartup;
+    }
+
+    @Override
+    public void increment(Map<String, Long> deltas) {
+        if (deltas.values().stream().allMatch(delta -> delta == 0)) {
+            return;
+        }
+        operations.getCollection(COLLECTION).bulkWrite(increments(deltas), new BulkWriteOptions().ordered(false));
+    }
+
+    @Override
+    public Mono<Void> incrementReactively(Map<String, Long> deltas) {
+        if (deltas.values().stream().allMatch(delta -> delta == 0)) {
+            return Mono.empty();
+        }
+        return reactiveOperations.getCollection(COLLECTION)
+                .flatMap(counters -> Mono.from(counters.bulkWrite(increments(deltas), new BulkWriteOptions().ordered(false))))
+                .then();
+    }
+
+    private static List<WriteModel<Document>> increments(Map<String, Long> deltas) {
+        var upsert = new UpdateOptions().upsert(true);
+        var sum = deltas.values().stream().mapToLong(Long::longValue).sum();
+        var writes = new ArrayList<WriteModel<Document>>(deltas.size() + 1);
+        deltas.forEach((username, delta) -> writes.add(new UpdateOneModel<>(Filters.eq("_id", USER_PREFIX + username), Updates.inc(COUNT, delta), upsert)));
+        writes.add(new UpdateOneModel<>(Filters.eq("_id", TOTAL_ID), Updates.inc(COUNT, sum), upsert));
+        return writes;
+    }
+
+    @Override
+    public long total() {
+        return read(TOTAL_ID);
+    }
+
+    @Override
+    public long of(String username) {
+        return read(USER_PREFIX + username);
+    }
+
+    private long read(String id) {
+        var counter = operations.findById(id, Document.class, COLLECTION);
+        return counter == null ? 0 : counter.get(COUNT, Number.class).longValue();
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    void onStartup() {
+        if (reconcileOnStartup) {
+            scheduler.schedule(this::reconcile, Instant.now());
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${notes.counters.reconcile-interval:PT10M}", initialDelayString = "${notes.counters.reconcile-interval:PT10M}")
+    public void reconcile() {
+        var aggregation = Aggregation.newAggregation(group("username").count().as(COUNT));
+        var counts = operations.aggregate(aggregation, operations.getCollectionName(Note.class), Document.class).getMappedResults();
+
+        var bulk = operations.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        var ids = new ArrayList<String>(counts.size());
+        long total = 0;
+        for (var count : counts) {
+            var id = USER_PREFIX + count.getString("_id");
+            var value = count.get(COUNT, Number.class).longValue();
+            ids.add(id);
+            total += value;
+            bulk.upsert(query(where("_id").is(id)), new Update().set(COUNT, value));
+        }
+        bulk.upsert(query(where("_id").is(TOTAL_ID)), new Update().set(COUNT, total));
+        bulk.remove(query(where("_id").regex("^" + USER_PREFIX).nin(ids)));
+
+        var drift = total - total();
+        bulk.execute();
+        if (drift != 0) {
+            log.warn("Reconciled note counters, total was off by [{}]", drift);
+        } else {
+            log.debug("Reconciled note counters of [{}] owners, total is [{}]", counts.size(), total);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/*
+ * Automatic index creation is disabled by default in Spring Data MongoDB,
+ * so the indexes declared on Note are resolved and created here instead.
+ * Creating an index that already exists with the same definition is a
+ * no-op, which makes this safe to run on every startup.
+ *
+ * Building a missing index on a large collection takes a while, so it is
+ * done in the background once the application is ready rather than
+ * holding up startup, and queries scan until it is over. Deployments that
+ * build indexes ahead of time can turn ensuring them off, and are then
+ * only told which ones are missing.
+ */
+@Component
+class NoteIndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteIndexManager.class);
+
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoOperations operations;
+    private final TaskScheduler scheduler;
+    private final boolean ensureOnStartup;
+
+    NoteIndexManager(MongoOperations operations, TaskScheduler scheduler,
+                     @Value("${notes.indexes.ensure-on-startup:true}") boolean ensureOnStartup) {
+        this.operations = operations;
+        this.scheduler = scheduler;
+        this.ensureOnStartup = ensureOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void onStartup() {
+        scheduler.schedule(this::ensureIndexes, Instant.now());
+    }
+
+    void ensureIndexes() {
+        var required = requiredIndexes();
+        if (ensureOnStartup) {
+            ensure(required);
+        }
+        report(required);
+    }
+
+    List<IndexDefinition> requiredIndexes() {
+        var mappingContext = operations.getConverter().getMappingContext();
+        var resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        return StreamSupport.stream(resolver.resolveIndexFor(Note.class).spliterator(), false)
+                .map(IndexDefinition.class::cast)
+                .toList();
+    }
+
+    private void ensure(List<IndexDefinition> required) {
+        var indexOps = operations.indexOps(Note.class);
+        for (var definition : required) {
+            try {
+                var name = indexOps.ensureIndex(definition);
+                log.debug("Ensured index [{}] on notes: {}", name, definition.getIndexKeys());
+            } catch (DataAccessException e) {
+                if (isText(definition) && replaceText(indexOps, definition)) {
+                    continue;
+                }
+                log.error("Failed to ensure index [{}] on notes", nameOf(definition), e);
+            }
+        }
+    }
+
+    /*
+     * A collection holds a single text index, so one over other fields,
+     * such as content alone before searchText was indexed, makes ensuring
+     * the declared one fail. It is dropped and rebuilt instead, which
+     * leaves text searches failing until the build is over.
+     */
+    private boolean replaceText(IndexOperations indexOps, IndexDefinition definition) {
+        var existing = indexOps.getIndexInfo().stream().filter(NoteIndexManager::hasText).findFirst();
+        if (existing.isEmpty()) {
+            return false;
+        }
+        try {
+            indexOps.dropIndex(existing.get().getName());
+            indexOps.ensureIndex(definition);
+            log.warn("Replaced text index [{}] on notes with [{}]: {}", existing.get().getName(), nameOf(definition), definition.getIndexKeys());
+            return true;
+        } catch (DataAccessException e) {
+            log.error("Failed to replace text index [{}] on notes", existing.get().getName(), e);
+            return true;
+        }
+    }
+
+    private static boolean isText(IndexDefinition definition) {
+        return definition.getIndexKeys().containsValue("text");
+    }
+
+    private void report(List<IndexDefinition> required) {
+        var existing = operations.indexOps(Note.class).getIndexInfo();
+        var existingNames = existing.stream().map(IndexInfo::getName).collect(Collectors.toSet());
+        var requiredNames = required.stream().map(NoteIndexManager::nameOf).collect(Collectors.toSet());
+
+        var missing = requiredNames.stream().filter(name -> !existingNames.contains(name)).sorted().toList();
+        var unmanaged = existingNames.stream()
+                .filter(name -> !ID_INDEX.equals(name) && !requiredNames.contains(name))
+                .sorted()
+                .toList();
+
+        if (missing.isEmpty()) {
+            log.info("All [{}] required indexes on notes are present: {}", requiredNames.size(), requiredNames);
+        } else {
+            log.warn("Missing indexes on notes: {}. Queries relying on them will scan the collection", missing);
+        }
+        if (!unmanaged.isEmpty()) {
+            log.warn("Indexes on notes not declared by the application: {}", unmanaged);
+        }
+        for (var index : existing) {
+            existing.stream()
+                    .filter(other -> other != index && isPrefixOf(index, other))
+                    .findFirst()
+                    .ifPresent(covering -> log.warn(
+                            "Index [{}] on notes is redundant, its keys are a prefix of index [{}]",
+                            index.getName(), covering.getName()
+                    ));
+        }
+    }
+
+    private static boolean isPrefixOf(IndexInfo index, IndexInfo other) {
+        if (ID_INDEX.equals(index.getName()) || index.isUnique() || hasText(index) || hasText(other)) {
+            return false;
+        }
+        var fields = index.getIndexFields();
+        var otherFields = other.getIndexFields();
+        return fields.size() < otherFields.size() && otherFields.subList(0, fields.size()).equals(fields);
+    }
+
+    private static boolean hasText(IndexInfo index) {
+        return index.getIndexFields().stream().anyMatch(IndexField::isText);
+    }
+
+    private static String nameOf(IndexDefinition definition) {
+        return definition.getIndexOptions().getString("name");
+    }
+}
@@ -0,0 +1,239 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/*
+ * Queries and updates shared by the blocking and the reactive repository
+ * fragments, so both execution modes hit Mongo in exactly the same way.
+ */
+final class NoteQueries {
+
+    private NoteQueries() {
+    }
+
+    static Query byId(String id) {
+        return query(where("id").is(id));
+    }
+
+    static Query byIdAndUsername(String id, String username) {
+        return query(where("id").is(id).and("username").is(username));
+    }
+
+    static Query byIdUsernameAndVersion(String id, String username, long version) {
+        return query(where("id").is(id)
+                .and("username").is(username)
+                .and("version").is(version));
+    }
+
+    /*
+     * Notes holding shared content have to release their reference once
+     * written, so they are left to a second attempt that reads their hash
+     * first, sparing every other write that extra round trip.
+     */
+    static Query unshared(Query query) {
+        return query.addCriteria(where(NoteContentCodec.CODEC).ne(SharedNoteContents.SHA256));
+    }
+
+    /**
+     * The filter the template would send for {@code query}, for the driver to run directly.
+     */
+    static Document filterOf(Query query, MongoConverter converter) {
+        return new QueryMapper(converter).getMappedObject(query.getQueryObject(), converter.getMappingContext().getPersistentEntity(Note.class));
+    }
+
+    static Query ownership(String id) {
+        var query = byId(id);
+        query.fields().include("username").include("version");
+        return query;
+    }
+
+    /*
+     * Stamped by bulk updates on every note they write, so the notes a
+     * bulk wrote can be told apart from the ones it missed afterwards.
+     */
+    static final String BULK_WRITE = "bulkWrite";
+
+    static Update contentUpdate(StoredContent content, Instant now) {
+        var update = new Update()
+                .set(NoteContentCodec.CONTENT, content.value())
+                .set("lastModifiedAt", now)
+                .inc("version", 1);
+        if (content.searchText() == null) {
+            update.unset(NoteContentCodec.SEARCH_TEXT);
+        } else {
+            update.set(NoteContentCodec.SEARCH_TEXT, content.searchText());
+        }
+        return content.codec() == null
+                ? update.unset(NoteContentCodec.CODEC)
+                : update.set(NoteContentCodec.CODEC, content.codec());
+    }
+
+    /*
+     * Only plain content can be edited by Mongo itself, compressed content
+     * has to go through the JVM. Edits leaving the content blank don't
+     * match either, the same way the JVM refuses to apply them.
+     */
+    static Query editableByIdUsernameAndVersion(String id, String username, long version, List<ContentEdit> edits) {
+        var trimmed = new Document("$trim", new Document("input", edited(edits)));
+        return byIdUsernameAndVersion(id, username, version)
+                .addCriteria(where(NoteContentCodec.CODEC).exists(false))
+                .addCriteria(expr(new Document("$ne", List.of(trimmed, ""))));
+    }
+
+    /*
+     * An update pipeline with one stage per edit, each working on the
+     * content the previous one left, so the edits are applied in order
+     * and atomically without the content ever leaving Mongo. The texts
+     * are literals, so one starting with a dollar isn't read as a field.
+     */
+    static AggregationUpdate contentEdits(List<ContentEdit> edits, Instant now) {
+        var update = AggregationUpdate.update();
+        for (var edit : edits) {
+            update.set(NoteContentCodec.CONTENT).toValue(edited(edit, "$" + NoteContentCodec.CONTENT));
+        }
+        return update.set("lastModifiedAt").toValue(Date.from(now))
+                .set("version").toValue(new Document("$add", List.of("$version", 1)));
+    }
+
+    /* The content all the edits leave, each one binding what the previous one left */
+    private static Object edited(List<ContentEdit> edits) {
+        Object content = "$" + NoteContentCodec.CONTENT;
+        for (int i = 0; i < edits.size(); i++) {
+            var name = "content" + i;
+            content = new Document("$let", new Document("vars", new Document(name, content)).append("in", edited(edits.get(i), "$$" + name)));
+        }
+        return content;
+    }
+
+    private static Document edited(ContentEdit edit, String content) {
+        var text = new Document("$literal", edit.text());
+        List<Object> concatenated = switch (edit.kind()) {
+            case APPEND -> List.of(content, text);
+            case PREPEND -> List.of(text, content);
+            case REPLACE -> List.of(
+                    new Document("$substrCP", List.of(content, 0, edit.start())),
+                    text,
+                    new Document("$substrCP", List.of(content, edit.end(), new Document("$strLenCP", content)))
+            );
+        };
+        return new Document("$concat", concatenated);
+    }
+
+    private static CriteriaDefinition expr(Document expression) {
+        return new CriteriaDefinition() {
+
+            @Override
+            public Document getCriteriaObject() {
+                return new Document(getKey(), expression);
+            }
+
+            @Override
+            public String getKey() {
+                return "$expr";
+            }
+        };
+    }
+
+    static Query modifiedSince(String username, Instant modifiedSince) {
+        var query = new Query();
+        if (username != null) {
+            query.addCriteria(where("username").is(username));
+        }
+        if (modifiedSince != null) {
+            query.addCriteria(where("lastModifiedAt").gte(modifiedSince));
+        }
+        return query.with(Sort.by("lastModifiedAt", "id"));
+    }
+
+    static Query page(Pageable pageable, Collection<String> properties) {
+        return project(new Query().with(pageable), properties);
+    }
+
+    /*
+     * Matches go by relevance, then by id so that equally relevant notes
+     * keep a stable order across pages. Asking for the score makes Mongo
+     * project it, whichever properties were selected.
+     */
+    static Query search(String text, String username, Pageable pageable, Collection<String> properties) {
+        var query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text)).sortByScore();
+        if (username != null) {
+            query.addCriteria(where("username").is(username));
+        }
+        query.with(Sort.by("id"));
+        if (pageable.isPaged()) {
+            query.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return project(query, properties);
+    }
+
+    static Query byId(String id, Collection<String> properties) {
+        return project(byId(id), properties);
+    }
+
+    static Query after(String property, Sort.Direction direction, Instant lastValue, String lastId, int limit, Collection<String> properties) {
+        var query = new Query();
+        if (lastId != null) {
+            query.addCriteria(after(property, direction, lastValue, lastId));
+        }
+        query.with(Sort.by(direction, property, "id")).limit(limit);
+        if (!properties.isEmpty()) {
+            var required = new ArrayList<>(properties);
+            required.add(property);
+            required.add("id");
+            project(query, required);
+        }
+        return query;
+    }
+
+    private static Criteria after(String property, Sort.Direction direction, Instant lastValue, String lastId) {
+        if (direction.isAscending()) {
+            return new Criteria().orOperator(
+                    where(property).gt(lastValue),
+                    where(property).is(lastValue).and("id").gt(lastId)
+            );
+        }
+        return new Criteria().orOperator(
+                where(property).lt(lastValue),
+                where(property).is(lastValue).and("id").lt(lastId)
+        );
+    }
+
+    /*
+     * Mongo always returns the _id unless told otherwise, so it is
+     * excluded explicitly when it wasn't asked for.
+     */
+    private static Query project(Query query, Collection<String> properties) {
+        if (properties.isEmpty()) {
+            return query;
+        }
+        var fields = query.fields();
+        properties.forEach(fields::include);
+        if (properties.contains(NoteContentCodec.CONTENT)) {
+            fields.include(NoteContentCodec.CODEC);
+        }
+        if (!properties.contains("id")) {
+            fields.exclude("id");
+        }
+        return query;
+    }
+}
@@ -2,6 +2,6 @@ package com.github.jorgebsa.spring.demo.dao;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
-public interface NoteRepository extends MongoRepository<Note, String> {
+public interface NoteRepository extends MongoRepository<Note, String>, NoteRepositoryCustom {
 
 }
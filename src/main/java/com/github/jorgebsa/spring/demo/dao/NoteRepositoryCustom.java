@@ -0,0 +1,142 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+public interface NoteRepositoryCustom {
+
+    /**
+     * Inserts all notes with a single unordered bulk write, so a failing
+     * note doesn't stop the others from being inserted. Notes must already
+     * carry their id, timestamps and version.
+     *
+     * @return the failure of each note that could not be inserted, by its position in {@code notes}
+     */
+    Map<Integer, WriteFailure> insertUnordered(List<Note> notes);
+
+    /**
+     * Replaces the content of many notes of {@code username} with a single
+     * unordered bulk write, each only if it is still at the version of its
+     * update. When fewer notes match than were sent, a single projection
+     * read tells the updates that were written from those that missed.
+     */
+    BulkUpdateResult updateContentsUnordered(String username, List<ContentUpdate> updates, Instant now);
+
+    /**
+     * Removes many notes with a single unordered bulk write, each only if
+     * it still belongs to the owner it was read with.
+     *
+     * @return how many notes were removed
+     */
+    long removeAllUnordered(List<Note> notes);
+
+    /**
+     * Streams notes straight from a Mongo cursor, ordered by last modification.
+     * The stream holds the cursor open, so it must be closed once consumed.
+     *
+     * @param username      only notes of this owner, unless null
+     * @param modifiedSince only notes modified at or after this instant, unless null
+     * @param batchSize     how many notes the cursor fetches per round trip
+     */
+    Stream<Note> stream(@Nullable String username, @Nullable Instant modifiedSince, int batchSize);
+
+    /**
+     * Finds the owner, version and last modification of many notes at once.
+     *
+     * @return the notes that were found, by id
+     */
+    Map<String, Note> findOwnerships(Collection<String> ids);
+
+    /**
+     * Atomically replaces the content of a note, but only if it belongs to
+     * {@code username} and is still at {@code version}. The version is
+     * increased and the updated note is returned in the same round trip.
+     *
+     * @return the updated note, or empty if no note matched all conditions
+     */
+    Optional<Note> updateContent(String id, String username, long version, String content);
+
+    /**
+     * Applies the edits, in order, to the content of a note, but only if it
+     * belongs to {@code username} and is still at {@code version}. Plain
+     * content is edited by Mongo in a single round trip, while compressed
+     * content is read, edited and written back under the same conditions.
+     * Either way the version is increased and the updated note is returned.
+     * Edits that would leave the content blank aren't applied.
+     *
+     * @return the updated note, or empty if no note matched all conditions or the content would be left blank
+     */
+    Optional<Note> editContent(String id, String username, long version, List<ContentEdit> edits);
+
+    /**
+     * Atomically removes a note, whatever its owner.
+     *
+     * @return the removed note, or empty if it wasn't found
+     */
+    Optional<Note> removeById(String id);
+
+    /**
+     * Atomically removes a note, but only if it belongs to {@code username}.
+     *
+     * @return the removed note, or empty if no note matched both conditions
+     */
+    Optional<Note> removeByIdAndUsername(String id, String username);
+
+    /**
+     * Finds up to {@code limit} notes ordered by {@code property} and then by id,
+     * starting right after the note identified by {@code lastValue} and
+     * {@code lastId}. Both may be null in order to start from the beginning.
+     * This is a range query, so it doesn't degrade with the scroll's depth.
+     * <p>
+     * Only the given {@code properties} are read, along with the id and the
+     * sort property. An empty collection reads whole notes.
+     */
+    List<Note> findAfter(String property, Sort.Direction direction, Instant lastValue, String lastId, int limit, Collection<String> properties);
+
+    /**
+     * Finds a page of notes reading only the given {@code properties}.
+     * An empty collection reads whole notes.
+     */
+    Page<Note> findAll(Pageable pageable, Collection<String> properties);
+
+    /**
+     * Like {@link #findAll(Pageable, Collection)}, but the total is only
+     * asked of {@code total} instead of counting the collection, and only
+     * when the page alone doesn't tell it.
+     */
+    Page<Note> findAll(Pageable pageable, Collection<String> properties, LongSupplier total);
+
+    /**
+     * Finds a page of the notes whose content matches {@code text} through
+     * the text index, most relevant first, with their relevance score.
+     * The page's own sort is ignored. Only the given {@code properties}
+     * are read, an empty collection reads whole notes. Content that isn't
+     * stored plain is only matched on its first characters.
+     *
+     * @param username only notes of this owner, unless null
+     */
+    Page<Note> search(String text, @Nullable String username, Pageable pageable, Collection<String> properties);
+
+    /**
+     * Finds a note reading only the given {@code properties}.
+     * An empty collection reads the whole note.
+     */
+    Optional<Note> findById(String id, Collection<String> properties);
+
+    /**
+     * Finds a note reading only its owner and version, which is enough to
+     * explain why a conditional write did not match it.
+     */
+    Optional<Note> findOwnership(String id);
+
+}
@@ -0,0 +1,274 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.lang.Nullable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+class NoteRepositoryCustomImpl implements NoteRepositoryCustom {
+
+    private final MongoOperations operations;
+    private final NoteContentCodec codec;
+    private final SharedNoteContents shared;
+
+    NoteRepositoryCustomImpl(MongoOperations operations, NoteContentCodec codec, SharedNoteContents shared) {
+        this.operations = operations;
+        this.codec = codec;
+        this.shared = shared;
+    }
+
+    @Override
+    public Map<Integer, WriteFailure> insertUnordered(List<Note> notes) {
+        if (notes.isEmpty()) {
+            return new HashMap<>();
+        }
+        var bulk = operations.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class).insert(notes);
+        return execute(bulk);
+    }
+
+    @Override
+    public BulkUpdateResult updateContentsUnordered(String username, List<ContentUpdate> updates, Instant now) {
+        var failures = new HashMap<Integer, WriteFailure>();
+        if (updates.isEmpty()) {
+            return new BulkUpdateResult(Set.of(), failures, Map.of());
+        }
+        var held = shared.heldBy(Filters.in("_id", updates.stream().map(update -> key(update.id())).toList()));
+        var stamp = ObjectId.get();
+        var bulk = operations.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        for (var update : updates) {
+            var query = NoteQueries.byIdUsernameAndVersion(update.id(), username, update.version());
+            bulk.updateOne(query, NoteQueries.contentUpdate(codec.encode(update.content()), now).set(NoteQueries.BULK_WRITE, stamp));
+        }
+        int matched;
+        try {
+            matched = bulk.execute().getMatchedCount();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), WriteFailure.of(error)));
+            matched = e.getResult().getMatchedCount();
+        }
+
+        var positions = new HashMap<Object, Integer>();
+        for (int i = 0; i < updates.size(); i++) {
+            if (!failures.containsKey(i)) {
+                positions.put(key(updates.get(i).id()), i);
+            }
+        }
+        var applied = new HashSet<Integer>();
+        var missed = new HashMap<String, Note>();
+        if (matched == positions.size()) {
+            applied.addAll(positions.values());
+            release(held, updates, applied);
+            return new BulkUpdateResult(applied, failures, missed);
+        }
+        /* Only the stamp tells which of the notes read back this bulk wrote, the others were missed */
+        var found = operations.getCollection(operations.getCollectionName(Note.class))
+                .find(Filters.in("_id", positions.keySet()))
+                .projection(Projections.include("username", "version", "lastModifiedAt", NoteQueries.BULK_WRITE));
+        for (var document : found) {
+            if (stamp.equals(document.get(NoteQueries.BULK_WRITE))) {
+                applied.add(positions.get(document.get("_id")));
+            } else {
+                var note = operations.getConverter().read(Note.class, document);
+                missed.put(note.getId(), note);
+            }
+        }
+        release(held, updates, applied);
+        return new BulkUpdateResult(applied, failures, missed);
+    }
+
+    /* An applied update matched its version, so a note still at it when read held the very content it replaced */
+    private void release(Map<Object, Document> held, List<ContentUpdate> updates, Set<Integer> applied) {
+        var hashes = new ArrayList<Binary>();
+        for (var position : applied) {
+            var update = updates.get(position);
+            var note = held.get(key(update.id()));
+            if (note != null && note.get("version", Number.class).longValue() == update.version()) {
+                hashes.add(note.get(NoteContentCodec.CONTENT, Binary.class));
+            }
+        }
+        shared.release(hashes);
+    }
+
+    /* The same conversion the mapping applies to ids in queries */
+    private static Object key(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public long removeAllUnordered(List<Note> notes) {
+        if (notes.isEmpty()) {
+            return 0;
+        }
+        var held = shared.heldBy(Filters.in("_id", notes.stream().map(note -> key(note.getId())).toList()));
+        var bulk = operations.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        notes.forEach(note -> bulk.remove(NoteQueries.byIdAndUsername(note.getId(), note.getUsername())));
+        var removed = bulk.execute().getDeletedCount();
+        /* Fewer removals mean concurrent ones, which released their own references */
+        if (removed == notes.size()) {
+            shared.release(held.values().stream().map(note -> note.get(NoteContentCodec.CONTENT, Binary.class)).toList());
+        }
+        return removed;
+    }
+
+    private static Map<Integer, WriteFailure> execute(BulkOperations bulk) {
+        var failures = new HashMap<Integer, WriteFailure>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), WriteFailure.of(error)));
+        }
+        return failures;
+    }
+
+    @Override
+    public Stream<Note> stream(@Nullable String username, @Nullable Instant modifiedSince, int batchSize) {
+        var query = NoteQueries.modifiedSince(username, modifiedSince).cursorBatchSize(batchSize);
+        return StreamUtils.createStreamFromIterator(operations.stream(query, Note.class));
+    }
+
+    @Override
+    public Map<String, Note> findOwnerships(Collection<String> ids) {
+        var query = query(where("id").in(ids));
+        query.fields().include("username").include("version").include("lastModifiedAt");
+        return operations.find(query, Note.class)
+                .stream()
+                .collect(Collectors.toMap(Note::getId, Function.identity()));
+    }
+
+    @Override
+    public Optional<Note> updateContent(String id, String username, long version, String content) {
+        var update = NoteQueries.contentUpdate(codec.encode(content), Instant.now());
+        var updated = operations.findAndModify(NoteQueries.unshared(NoteQueries.byIdUsernameAndVersion(id, username, version)), update, options().returnNew(true), Note.class);
+        if (updated != null) {
+            return Optional.of(updated);
+        }
+        /* Either the note holds shared content, or the conditions don't hold and the read finds nothing either */
+        var query = NoteQueries.byIdUsernameAndVersion(id, username, version);
+        return heldBy(query).map(hash -> {
+            var replaced = operations.findAndModify(query, update, options().returnNew(true), Note.class);
+            if (replaced != null) {
+                shared.release(List.of(hash));
+            }
+            return replaced;
+        });
+    }
+
+    @Override
+    public Optional<Note> editContent(String id, String username, long version, List<ContentEdit> edits) {
+        var query = NoteQueries.editableByIdUsernameAndVersion(id, username, version, edits);
+        var edited = operations.findAndModify(query, NoteQueries.contentEdits(edits, Instant.now()), options().returnNew(true), Note.class);
+        if (edited != null) {
+            return Optional.of(edited);
+        }
+        /* Either the content is compressed or would be left blank, or the conditions don't hold and the read finds nothing either */
+        var found = operations.findOne(NoteQueries.byIdUsernameAndVersion(id, username, version), Note.class);
+        if (found == null) {
+            return Optional.empty();
+        }
+        var content = found.getContent();
+        for (var edit : edits) {
+            content = edit.applyTo(content);
+        }
+        if (content.isBlank()) {
+            return Optional.empty();
+        }
+        return updateContent(id, username, version, content);
+    }
+
+    @Override
+    public Optional<Note> removeById(String id) {
+        return remove(() -> NoteQueries.byId(id));
+    }
+
+    @Override
+    public Optional<Note> removeByIdAndUsername(String id, String username) {
+        return remove(() -> NoteQueries.byIdAndUsername(id, username));
+    }
+
+    private Optional<Note> remove(Supplier<Query> query) {
+        var removed = operations.findAndRemove(NoteQueries.unshared(query.get()), Note.class);
+        if (removed != null) {
+            return Optional.of(removed);
+        }
+        /* Matching the hash too, so the reference released is the one the note held */
+        return heldBy(query.get()).map(hash -> {
+            var removedShared = operations.findAndRemove(query.get().addCriteria(where(NoteContentCodec.CONTENT).is(hash)), Note.class);
+            if (removedShared != null) {
+                shared.release(List.of(hash));
+            }
+            return removedShared;
+        });
+    }
+
+    private Optional<Binary> heldBy(Query query) {
+        return shared.heldBy(NoteQueries.filterOf(query, operations.getConverter()))
+                .values()
+                .stream()
+                .findFirst()
+                .map(note -> note.get(NoteContentCodec.CONTENT, Binary.class));
+    }
+
+    @Override
+    public List<Note> findAfter(String property, Sort.Direction direction, Instant lastValue, String lastId, int limit, Collection<String> properties) {
+        var query = NoteQueries.after(property, direction, lastValue, lastId, limit, properties);
+        return operations.find(query, Note.class);
+    }
+
+    @Override
+    public Page<Note> findAll(Pageable pageable, Collection<String> properties) {
+        return findAll(pageable, properties, () -> operations.count(new Query(), Note.class));
+    }
+
+    @Override
+    public Page<Note> findAll(Pageable pageable, Collection<String> properties, LongSupplier total) {
+        var notes = operations.find(NoteQueries.page(pageable, properties), Note.class);
+        return PageableExecutionUtils.getPage(notes, pageable, total);
+    }
+
+    @Override
+    public Page<Note> search(String text, @Nullable String username, Pageable pageable, Collection<String> properties) {
+        var notes = operations.find(NoteQueries.search(text, username, pageable, properties), Note.class);
+        return PageableExecutionUtils.getPage(notes, pageable, () -> operations.count(NoteQueries.search(text, username, Pageable.unpaged(), List.of()), Note.class));
+    }
+
+    @Override
+    public Optional<Note> findById(String id, Collection<String> properties) {
+        return Optional.ofNullable(operations.findOne(NoteQueries.byId(id, properties), Note.class));
+    }
+
+    @Override
+    public Optional<Note> findOwnership(String id) {
+        return Optional.ofNullable(operations.findOne(NoteQueries.ownership(id), Note.class));
+    }
+
+}
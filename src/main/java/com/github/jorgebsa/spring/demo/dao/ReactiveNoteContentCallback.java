@@ -0,0 +1,25 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.bson.Document;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveAfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+/*
+ * The reactive template's counterpart of NoteContentListener's callback,
+ * fetching shared content without blocking the event loop.
+ */
+@Component
+class ReactiveNoteContentCallback implements ReactiveAfterConvertCallback<Note> {
+
+    private final NoteContentCodec codec;
+
+    ReactiveNoteContentCallback(NoteContentCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public Publisher<Note> onAfterConvert(Note note, Document document, String collection) {
+        return codec.resolveInReactively(note, document);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Reactive counterpart of {@link NoteRepositoryCustom}, running the very same queries.
+ */
+public interface ReactiveNoteRepositoryCustom {
+
+    /**
+     * @see NoteRepositoryCustom#updateContent(String, String, long, String)
+     */
+    Mono<Note> updateContent(String id, String username, long version, String content);
+
+    /**
+     * @see NoteRepositoryCustom#removeById(String)
+     */
+    Mono<Note> removeById(String id);
+
+    /**
+     * @see NoteRepositoryCustom#removeByIdAndUsername(String, String)
+     */
+    Mono<Note> removeByIdAndUsername(String id, String username);
+
+    /**
+     * @see NoteRepositoryCustom#findAfter(String, Sort.Direction, Instant, String, int, Collection)
+     */
+    Flux<Note> findAfter(String property, Sort.Direction direction, Instant lastValue, String lastId, int limit, Collection<String> properties);
+
+    /**
+     * @see NoteRepositoryCustom#findAll(Pageable, Collection)
+     */
+    Mono<Page<Note>> findAll(Pageable pageable, Collection<String> properties);
+
+    /**
+     * @see NoteRepositoryCustom#findById(String, Collection)
+     */
+    Mono<Note> findById(String id, Collection<String> properties);
+
+    /**
+     * @see NoteRepositoryCustom#findOwnership(String)
+     */
+    Mono<Note> findOwnership(String id);
+}
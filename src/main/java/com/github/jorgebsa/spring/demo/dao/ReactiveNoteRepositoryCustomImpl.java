@@ -0,0 +1,92 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.bson.types.Binary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+class ReactiveNoteRepositoryCustomImpl implements ReactiveNoteRepositoryCustom {
+
+    private final ReactiveMongoOperations operations;
+    private final NoteContentCodec codec;
+    private final SharedNoteContents shared;
+
+    ReactiveNoteRepositoryCustomImpl(ReactiveMongoOperations operations, NoteContentCodec codec, SharedNoteContents shared) {
+        this.operations = operations;
+        this.codec = codec;
+        this.shared = shared;
+    }
+
+    @Override
+    public Mono<Note> updateContent(String id, String username, long version, String content) {
+        var update = NoteQueries.contentUpdate(codec.encode(content), Instant.now());
+        return operations.findAndModify(NoteQueries.unshared(NoteQueries.byIdUsernameAndVersion(id, username, version)), update, options().returnNew(true), Note.class)
+                .switchIfEmpty(Mono.defer(() -> {
+                    var query = NoteQueries.byIdUsernameAndVersion(id, username, version);
+                    return heldBy(query).flatMap(hash -> operations.findAndModify(query, update, options().returnNew(true), Note.class)
+                            .flatMap(replaced -> shared.releaseReactively(hash).thenReturn(replaced)));
+                }));
+    }
+
+    @Override
+    public Mono<Note> removeById(String id) {
+        return remove(() -> NoteQueries.byId(id));
+    }
+
+    @Override
+    public Mono<Note> removeByIdAndUsername(String id, String username) {
+        return remove(() -> NoteQueries.byIdAndUsername(id, username));
+    }
+
+    private Mono<Note> remove(Supplier<Query> query) {
+        return operations.findAndRemove(NoteQueries.unshared(query.get()), Note.class)
+                .switchIfEmpty(Mono.defer(() -> heldBy(query.get())
+                        .flatMap(hash -> operations.findAndRemove(query.get().addCriteria(where(NoteContentCodec.CONTENT).is(hash)), Note.class)
+                                .flatMap(removed -> shared.releaseReactively(hash).thenReturn(removed)))));
+    }
+
+    private Mono<Binary> heldBy(Query query) {
+        return shared.heldByReactively(NoteQueries.filterOf(query, operations.getConverter()));
+    }
+
+    @Override
+    public Flux<Note> findAfter(String property, Sort.Direction direction, Instant lastValue, String lastId, int limit, Collection<String> properties) {
+        var query = NoteQueries.after(property, direction, lastValue, lastId, limit, properties);
+        return operations.find(query, Note.class);
+    }
+
+    /*
+     * The count runs alongside the page query instead of after it, so the
+     * page costs a single round trip of latency.
+     */
+    @Override
+    public Mono<Page<Note>> findAll(Pageable pageable, Collection<String> properties) {
+        var notes = operations.find(NoteQueries.page(pageable, properties), Note.class).collectList();
+        var total = operations.count(new Query(), Note.class);
+        return Mono.zip(notes, total)
+                .map(result -> PageableExecutionUtils.getPage(result.getT1(), pageable, result::getT2));
+    }
+
+    @Override
+    public Mono<Note> findById(String id, Collection<String> properties) {
+        return operations.findOne(NoteQueries.byId(id, properties), Note.class);
+    }
+
+    @Override
+    public Mono<Note> findOwnership(String id) {
+        return operations.findOne(NoteQueries.ownership(id), Note.class);
+    }
+
+}
@@ -0,0 +1,308 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.github.jorgebsa.spring.demo.dao.NoteContentCodec.CODEC;
+import static com.github.jorgebsa.spring.demo.dao.NoteContentCodec.CONTENT;
+
+/*
+ * Content at or above the threshold is stored once, in the note_contents
+ * collection, keyed by its SHA-256, and the notes holding it only keep the
+ * hash, with the sha256 codec. The body itself goes through the codec like
+ * any other content, so large shared content is compressed as well. Every
+ * note write referencing a body bumps its refCount with an upserting $inc,
+ * which inserts the body the first time it is seen.
+ *
+ * Updates and removals of a note holding a body release its reference
+ * with a $inc of minus one, once the write went through. A write racing
+ * with another one on the same note may release the wrong body, or none,
+ * so refCount is only ever a close estimate. The collector periodically
+ * recounts the references from the notes themselves, much like the note
+ * counters are reconciled, and only removes the bodies that recount finds
+ * unreferenced. A body is only removed once nothing has referenced it for
+ * the grace period, so a note written right after its body never ends up
+ * pointing at nothing.
+ *
+ * Reading doesn't depend on the flag, so sharing can be turned off without
+ * rewriting any note. Bodies never change, so the hot ones are kept decoded
+ * in memory for as long as they are read often enough.
+ *
+ * Referencing a body is a blocking write, so the reactive stack never
+ * shares content, but it still reads, updates and removes the notes other
+ * instances shared, resolving and releasing their bodies without blocking.
+ */
+@Component
+class SharedNoteContents {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedNoteContents.class);
+
+    static final String COLLECTION = "note_contents";
+    static final String SHA256 = "sha256";
+    static final String REF_COUNT = "refCount";
+    static final String REFERENCED_AT = "referencedAt";
+
+    private static final int BODY_OVERHEAD_BYTES = 96;
+    private static final int COLLECT_BATCH_SIZE = 500;
+
+    private final MongoOperations operations;
+    private final ReactiveMongoOperations reactiveOperations;
+    private final boolean enabled;
+    private final long threshold;
+    private final Duration gracePeriod;
+    private final Cache<Binary, String> bodies;
+
+    SharedNoteContents(MongoOperations operations, ReactiveMongoOperations reactiveOperations, MeterRegistry meterRegistry,
+                       @Value("${spring.main.web-application-type:servlet}") WebApplicationType webApplicationType,
+                       @Value("${notes.dedup.enabled:false}") boolean enabled,
+                       @Value("${notes.dedup.threshold:4KB}") DataSize threshold,
+                       @Value("${notes.dedup.grace-period:PT10M}") Duration gracePeriod,
+                       @Value("${notes.dedup.cache.max-heap:16MB}") DataSize maxHeap) {
+        this.operations = operations;
+        this.reactiveOperations = reactiveOperations;
+        this.enabled = enabled && webApplicationType != WebApplicationType.REACTIVE;
+        this.threshold = threshold.toBytes();
+        this.gracePeriod = gracePeriod;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maxHeap.toBytes())
+                .weigher((Binary hash, String content) -> (int) Math.min(Integer.MAX_VALUE, BODY_OVERHEAD_BYTES + 2L * content.length()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bodies, "note-contents");
+        if (this.enabled) {
+            log.info("Sharing note content of at least [{}], keeping [{}] of it in memory", threshold, maxHeap);
+        } else if (enabled) {
+            log.warn("Not sharing note content on the reactive stack, shared content is still read");
+        }
+    }
+
+    boolean shares(@Nullable String content) {
+        /* A UTF-8 encoding takes between one and three bytes per char */
+        if (!enabled || content == null || content.length() * 3L < threshold) {
+            return false;
+        }
+        return content.length() >= threshold || content.getBytes(StandardCharsets.UTF_8).length >= threshold;
+    }
+
+    /**
+     * Adds a reference to the body holding {@code content}, storing it as
+     * {@code body} if no note held it before.
+     *
+     * @return what the note itself should store instead of its content
+     */
+    StoredContent reference(String content, StoredContent body) {
+        var hash = new Binary(sha256(content));
+        var onInsert = body.codec() == null
+                ? Updates.setOnInsert(CONTENT, body.value())
+                : Updates.combine(Updates.setOnInsert(CONTENT, body.value()), Updates.setOnInsert(CODEC, body.codec()));
+        collection().updateOne(
+                Filters.eq("_id", hash),
+                Updates.combine(Updates.inc(REF_COUNT, 1L), Updates.set(REFERENCED_AT, new Date()), onInsert),
+                new UpdateOptions().upsert(true)
+        );
+        bodies.put(hash, content);
+        return new StoredContent(hash, SHA256);
+    }
+
+    /**
+     * Finds the notes matching {@code filter} that hold shared content,
+     * reading only the hash and the version of each.
+     *
+     * @return the documents of the notes, by id
+     */
+    Map<Object, Document> heldBy(Bson filter) {
+        var held = new HashMap<Object, Document>();
+        notes().find(Filters.and(filter, Filters.eq(CODEC, SHA256)))
+                .projection(Projections.include(CONTENT, "version"))
+                .forEach(note -> held.put(note.get("_id"), note));
+        return held;
+    }
+
+    /**
+     * Same as {@link #heldBy(Bson)} for a single note, without blocking.
+     *
+     * @return the hash of the shared content the note holds, if it matches and holds any
+     */
+    Mono<Binary> heldByReactively(Bson filter) {
+        return reactiveOperations.getCollection(reactiveOperations.getCollectionName(Note.class))
+                .flatMap(notes -> Mono.from(notes.find(Filters.and(filter, Filters.eq(CODEC, SHA256))).projection(Projections.include(CONTENT)).first()))
+                .map(note -> note.get(CONTENT, Binary.class));
+    }
+
+    /**
+     * Removes one reference to a body per occurrence of its hash, taken by
+     * the notes that stopped holding it.
+     */
+    void release(Collection<Binary> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        var writes = releases(hashes);
+        collection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+        log.debug("Released [{}] references to [{}] shared note contents", hashes.size(), writes.size());
+    }
+
+    /**
+     * Same as {@link #release(Collection)} for a single reference, without blocking.
+     */
+    Mono<Void> releaseReactively(Binary hash) {
+        return reactiveOperations.getCollection(COLLECTION)
+                .flatMap(contents -> Mono.from(contents.bulkWrite(releases(List.of(hash)), new BulkWriteOptions().ordered(false))))
+                .then();
+    }
+
+    private static List<WriteModel<Document>> releases(Collection<Binary> hashes) {
+        return hashes.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .entrySet()
+                .stream()
+                .<WriteModel<Document>>map(release -> new UpdateOneModel<>(Filters.eq("_id", release.getKey()), Updates.inc(REF_COUNT, -release.getValue())))
+                .toList();
+    }
+
+    /**
+     * @param decode turns the body, as stored, into the plain content
+     */
+    String find(Binary hash, Function<StoredContent, String> decode) {
+        return bodies.get(hash, key -> {
+            var body = collection().find(Filters.eq("_id", key)).projection(Projections.include(CONTENT, CODEC)).first();
+            if (body == null) {
+                throw missing(key);
+            }
+            return decode.apply(new StoredContent(body.get(CONTENT), body.getString(CODEC)));
+        });
+    }
+
+    /**
+     * Same as {@link #find(Binary, Function)}, without blocking.
+     */
+    Mono<String> findReactively(Binary hash, Function<StoredContent, String> decode) {
+        var cached = bodies.getIfPresent(hash);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return reactiveOperations.getCollection(COLLECTION)
+                .flatMap(contents -> Mono.from(contents.find(Filters.eq("_id", hash)).projection(Projections.include(CONTENT, CODEC)).first()))
+                .switchIfEmpty(Mono.error(() -> missing(hash)))
+                .map(body -> {
+                    var content = decode.apply(new StoredContent(body.get(CONTENT), body.getString(CODEC)));
+                    bodies.put(hash, content);
+                    return content;
+                });
+    }
+
+    /**
+     * Recounts every body's references and removes the ones left unreferenced
+     * for longer than the grace period.
+     *
+     * @return how many bodies were removed
+     */
+    @Scheduled(fixedDelayString = "${notes.dedup.collect-interval:PT1H}", initialDelayString = "${notes.dedup.collect-interval:PT1H}")
+    long collect() {
+        /* Spares deployments that never shared any content the scan of their notes */
+        if (collection().estimatedDocumentCount() == 0) {
+            return 0;
+        }
+        var cutoff = Date.from(Instant.now().minus(gracePeriod));
+        var references = new HashMap<Binary, Long>();
+        notes()
+                .aggregate(List.of(
+                        Aggregates.match(Filters.eq(CODEC, SHA256)),
+                        Aggregates.group("$" + CONTENT, Accumulators.sum(REF_COUNT, 1L))
+                ))
+                .allowDiskUse(true)
+                .forEach(group -> references.put(group.get("_id", Binary.class), group.get(REF_COUNT, Number.class).longValue()));
+
+        long removed = 0;
+        long recounted = 0;
+        var writes = new ArrayList<WriteModel<Document>>(COLLECT_BATCH_SIZE);
+        try (var cursor = collection().find().projection(Projections.include(REF_COUNT, REFERENCED_AT)).batchSize(COLLECT_BATCH_SIZE).cursor()) {
+            while (cursor.hasNext()) {
+                var body = cursor.next();
+                var count = references.getOrDefault(body.get("_id", Binary.class), 0L);
+                var referencedAt = body.getDate(REFERENCED_AT);
+                /* A note written since the body was read has moved referencedAt, so the write no longer matches */
+                var unchanged = Filters.and(Filters.eq("_id", body.get("_id")), Filters.eq(REFERENCED_AT, referencedAt));
+                if (count == 0 && !referencedAt.after(cutoff)) {
+                    writes.add(new DeleteOneModel<>(unchanged));
+                } else if (count != body.get(REF_COUNT, Number.class).longValue()) {
+                    writes.add(new UpdateOneModel<>(unchanged, Updates.set(REF_COUNT, count)));
+                }
+                if (writes.size() == COLLECT_BATCH_SIZE || (!cursor.hasNext() && !writes.isEmpty())) {
+                    var result = collection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+                    removed += result.getDeletedCount();
+                    recounted += result.getModifiedCount();
+                    writes.clear();
+                }
+            }
+        }
+        if (removed > 0 || recounted > 0) {
+            log.info("Removed [{}] unreferenced note contents and recounted the references of [{}] more", removed, recounted);
+        } else {
+            log.debug("No note content left to collect");
+        }
+        return removed;
+    }
+
+    private MongoCollection<Document> collection() {
+        return operations.getCollection(COLLECTION);
+    }
+
+    private MongoCollection<Document> notes() {
+        return operations.getCollection(operations.getCollectionName(Note.class));
+    }
+
+    private static IllegalStateException missing(Binary hash) {
+        return new IllegalStateException("Missing shared note content: " + HexFormat.of().formatHex(hash.getData()));
+    }
+
+    private static byte[] sha256(String content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Note content the way it is written to Mongo: either the plain string,
+ * with no codec, or the bytes the named codec produced from it, along
+ * with the plain text the text index should see in their place.
+ */
+record StoredContent(@Nullable Object value, @Nullable String codec, @Nullable String searchText) {
+
+    StoredContent(@Nullable Object value, @Nullable String codec) {
+        this(value, codec, null);
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.mongodb.bulk.BulkWriteError;
+
+/**
+ * Why a single write of a bulk failed. The message is the driver's own,
+ * only fit for logs.
+ */
+public record WriteFailure(Kind kind, String message) {
+
+    private static final int DOCUMENT_VALIDATION_FAILURE = 121;
+    private static final int DUPLICATE_KEY = 11000;
+
+    public enum Kind {
+        DUPLICATE_KEY,
+        INVALID,
+        OTHER
+    }
+
+    static WriteFailure of(BulkWriteError error) {
+        var kind = switch (error.getCode()) {
+            case DUPLICATE_KEY -> Kind.DUPLICATE_KEY;
+            case DOCUMENT_VALIDATION_FAILURE -> Kind.INVALID;
+            default -> Kind.OTHER;
+        };
+        return new WriteFailure(kind, error.getMessage());
+    }
+}
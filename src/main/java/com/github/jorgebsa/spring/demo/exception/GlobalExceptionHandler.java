@@ -2,8 +2,12 @@ package com.github.jorgebsa.spring.demo.exception;
 
 import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
 import com.github.jorgebsa.spring.demo.validation.Violation;
+import com.mongodb.MongoTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -15,6 +19,7 @@ import java.util.List;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @ControllerAdvice
 class GlobalExceptionHandler {
@@ -25,29 +30,56 @@ class GlobalExceptionHandler {
     ResponseEntity<ErrorMessage> handleConstraintValidationException(ConstraintViolationException ex) {
         var status = BAD_REQUEST;
         log.info("Handling ConstraintViolationException [{}]", status);
-        var violations = ex.getConstraintViolations()
-                .stream()
-                .map(v -> {
-                    var path = v.getPropertyPath().toString();
-                    var idx = path.lastIndexOf('.') + 1;
-                    return new Violation(path.substring(idx), v.getMessage());
-                })
-                .sorted(Violation.COMPARATOR)
-                .toList();
+        var violations = Violation.from(ex);
         log.debug("Violations: {}", violations);
         return buildResponse(status, violations);
     }
 
+    @ExceptionHandler(InvalidParameterException.class)
+    ResponseEntity<ErrorMessage> handleInvalidParameterException(InvalidParameterException ex) {
+        var status = BAD_REQUEST;
+        log.info("Handling InvalidParameterException for [{}]: {} [{}]", ex.getParameter(), ex.getMessage(), status);
+        return buildResponse(status, List.of(new Violation(ex.getParameter(), ex.getMessage())));
+    }
+
     @ExceptionHandler(IncorrectVersionException.class)
     ResponseEntity<ErrorMessage> handleIncorrectVersionException(IncorrectVersionException ex) {
         log.warn("Handling IncorrectVersionException: User [{}] failed to update note [{}] using version [{}]", ex.getUsername(), ex.getNoteId(), ex.getVersion());
-        return buildResponse(CONFLICT, List.of(new Violation("version", "incorrect value: " + ex.getVersion())));
+        return buildResponse(CONFLICT, List.of(ex.toViolation()));
     }
 
     @ExceptionHandler(value = NotSameUserException.class)
     ResponseEntity<ErrorMessage> handleNotSameUserException(NotSameUserException ex) {
         log.warn("Handling NotSameUserException: [{}] tried to alter note [{}] that belongs to [{}]", ex.getTrespasser(), ex.getNoteId(), ex.getNoteOwner());
-        return buildResponse(FORBIDDEN, List.of(new Violation("id", "note [" + ex.getNoteId() + "] does not belong to you")));
+        return buildResponse(FORBIDDEN, List.of(ex.toViolation()));
+    }
+
+    /* The driver's message names collections and indexes, so it is only logged */
+    @ExceptionHandler(DuplicateKeyException.class)
+    ResponseEntity<ErrorMessage> handleDuplicateKeyException(DuplicateKeyException ex) {
+        var status = CONFLICT;
+        log.warn("Handling DuplicateKeyException: {} [{}]", ex.getMessage(), status);
+        return buildResponse(status, List.of(new Violation("id", "note already exists")));
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    ResponseEntity<ErrorMessage> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        var status = BAD_REQUEST;
+        log.warn("Handling DataIntegrityViolationException: {} [{}]", ex.getMessage(), status);
+        return buildResponse(status, List.of(new Violation("content", "is not a valid note")));
+    }
+
+    /*
+     * Whether the operation waited too long for a pooled connection or for
+     * a server to answer, Mongo is unavailable for now. Operations run on
+     * a collection directly aren't translated by Spring, so both forms of
+     * the failure are handled.
+     */
+    @ExceptionHandler({MongoTimeoutException.class, DataAccessResourceFailureException.class})
+    ResponseEntity<ErrorMessage> handleMongoUnavailable(RuntimeException ex) {
+        var status = SERVICE_UNAVAILABLE;
+        log.warn("Handling {}: {} [{}]", ex.getClass().getSimpleName(), ex.getMessage(), status);
+        return buildResponse(status, List.of());
     }
 
     private ResponseEntity<ErrorMessage> buildResponse(HttpStatus status, List<Violation> violations) {
@@ -1,11 +1,17 @@
 package com.github.jorgebsa.spring.demo.exception;
 
+import com.github.jorgebsa.spring.demo.validation.Violation;
+
 public class IncorrectVersionException extends RuntimeException {
 
     private final String noteId;
     private final String username;
     private final long version;
 
+    public IncorrectVersionException(String noteId, String username, long version) {
+        this(null, noteId, username, version);
+    }
+
     public IncorrectVersionException(Throwable cause, String noteId, String username, long version) {
         super(cause);
         this.noteId = noteId;
@@ -25,4 +31,8 @@ public class IncorrectVersionException extends RuntimeException {
         return username;
     }
 
+    public Violation toViolation() {
+        return new Violation("version", "incorrect value: " + version);
+    }
+
 }
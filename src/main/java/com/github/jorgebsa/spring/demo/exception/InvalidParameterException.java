@@ -0,0 +1,21 @@
+package com.github.jorgebsa.spring.demo.exception;
+
+public class InvalidParameterException extends RuntimeException {
+
+    private final String parameter;
+
+    public InvalidParameterException(String parameter, String message) {
+        super(message);
+        this.parameter = parameter;
+    }
+
+    public InvalidParameterException(Throwable cause, String parameter, String message) {
+        super(message, cause);
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.github.jorgebsa.spring.demo.exception;
 
+import com.github.jorgebsa.spring.demo.validation.Violation;
+
 public class NotSameUserException extends RuntimeException {
 
     private final String noteId;
@@ -24,4 +26,8 @@ public class NotSameUserException extends RuntimeException {
         return trespasser;
     }
 
+    public Violation toViolation() {
+        return new Violation("id", "note [" + noteId + "] does not belong to you");
+    }
+
 }
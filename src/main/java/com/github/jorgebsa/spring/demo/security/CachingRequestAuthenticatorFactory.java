@@ -0,0 +1,63 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import org.keycloak.adapters.AdapterTokenStore;
+import org.keycloak.adapters.BearerTokenRequestAuthenticator;
+import org.keycloak.adapters.KeycloakDeployment;
+import org.keycloak.adapters.RequestAuthenticator;
+import org.keycloak.adapters.spi.AuthOutcome;
+import org.keycloak.adapters.spi.HttpFacade;
+import org.keycloak.adapters.springsecurity.authentication.RequestAuthenticatorFactory;
+import org.keycloak.adapters.springsecurity.authentication.SpringSecurityRequestAuthenticator;
+
+import javax.servlet.http.HttpServletRequest;
+
+/*
+ * Authenticates requests like the adapter's own factory does, except that
+ * bearer tokens already verified by an earlier request are taken from the
+ * VerifiedTokenCache instead of being parsed and RSA verified again. The
+ * checks that don't depend on the signature, such as the realm's not-before
+ * policy, still run on every request.
+ */
+class CachingRequestAuthenticatorFactory implements RequestAuthenticatorFactory {
+
+    private final VerifiedTokenCache cache;
+
+    CachingRequestAuthenticatorFactory(VerifiedTokenCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public RequestAuthenticator createRequestAuthenticator(HttpFacade facade, HttpServletRequest request,
+                                                           KeycloakDeployment deployment, AdapterTokenStore tokenStore,
+                                                           int sslRedirectPort) {
+        return new SpringSecurityRequestAuthenticator(facade, request, deployment, tokenStore, sslRedirectPort) {
+            @Override
+            protected BearerTokenRequestAuthenticator createBearerTokenAuthenticator() {
+                return new CachingBearerTokenAuthenticator(deployment);
+            }
+        };
+    }
+
+    private class CachingBearerTokenAuthenticator extends BearerTokenRequestAuthenticator {
+
+        CachingBearerTokenAuthenticator(KeycloakDeployment deployment) {
+            super(deployment);
+        }
+
+        @Override
+        protected AuthOutcome authenticateToken(HttpFacade exchange, String tokenString) {
+            var cached = cache.get(tokenString);
+            if (cached.isPresent() && cached.get().getIssuedAt() >= deployment.getNotBefore()) {
+                token = cached.get();
+                surrogate = null;
+                return AuthOutcome.AUTHENTICATED;
+            }
+            var outcome = super.authenticateToken(exchange, tokenString);
+            /* A surrogate depends on the caller's certificate, not only on the token */
+            if (outcome == AuthOutcome.AUTHENTICATED && surrogate == null) {
+                cache.put(tokenString, token);
+            }
+            return outcome;
+        }
+    }
+}
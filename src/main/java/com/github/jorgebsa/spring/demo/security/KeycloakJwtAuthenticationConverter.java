@@ -0,0 +1,49 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Reads Keycloak tokens the same way the servlet adapter does: the
+ * principal is the preferred_username and the authorities are the
+ * client's resource roles, prefixed like SimpleAuthorityMapper does.
+ */
+class KeycloakJwtAuthenticationConverter implements Converter<Jwt, Mono<AbstractAuthenticationToken>> {
+
+    private static final String USERNAME_CLAIM = "preferred_username";
+    private static final String RESOURCE_ACCESS_CLAIM = "resource_access";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final String resource;
+
+    KeycloakJwtAuthenticationConverter(String resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public Mono<AbstractAuthenticationToken> convert(Jwt jwt) {
+        return Mono.just(new JwtAuthenticationToken(jwt, authorities(jwt), jwt.getClaimAsString(USERNAME_CLAIM)));
+    }
+
+    private Collection<GrantedAuthority> authorities(Jwt jwt) {
+        var resourceAccess = jwt.getClaimAsMap(RESOURCE_ACCESS_CLAIM);
+        if (resourceAccess == null || !(resourceAccess.get(resource) instanceof Map<?, ?> access)) {
+            return List.of();
+        }
+        if (!(access.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        return roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+import static com.github.jorgebsa.spring.demo.security.WebSecurityConfig.ADMIN_ROLE;
+import static com.github.jorgebsa.spring.demo.security.WebSecurityConfig.USER_ROLE;
+
+/*
+ * The Keycloak adapter is servlet only, so on the reactive stack the
+ * tokens are verified as a plain OAuth2 resource server against the
+ * realm's keys, with the same roles and rules as WebSecurityConfig.
+ */
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, @Value("${keycloak.resource}") String resource) {
+        return http.cors()
+                .and()
+                .csrf().disable()
+                .authorizeExchange()
+                .pathMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs", "/v3/api-docs/**").permitAll()
+                .pathMatchers("/notes", "/notes/**").hasAnyRole(ADMIN_ROLE, USER_ROLE)
+                .anyExchange().authenticated()
+                .and()
+                .oauth2ResourceServer()
+                .jwt()
+                .jwtAuthenticationConverter(new KeycloakJwtAuthenticationConverter(resource))
+                .and()
+                .and()
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import org.keycloak.adapters.KeycloakConfigResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/*
+ * The adapter only fetches the realm's keys when a token signed with an
+ * unknown key shows up, and again whenever its public key cache TTL runs
+ * out, in both cases while a request waits. Fetching them as soon as the
+ * application is ready, and then periodically, keeps that off the request
+ * path and picks up rotated keys ahead of the tokens signed with them.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+class RealmKeysRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(RealmKeysRefresher.class);
+
+    private final KeycloakConfigResolver configResolver;
+
+    RealmKeysRefresher(KeycloakConfigResolver configResolver) {
+        this.configResolver = configResolver;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void prefetch() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${notes.security.keys-refresh-interval:PT10M}",
+            initialDelayString = "${notes.security.keys-refresh-interval:PT10M}")
+    void refresh() {
+        /* The Spring Boot resolver builds a single deployment, whatever the request */
+        var deployment = configResolver.resolve(null);
+        try {
+            deployment.getPublicKeyLocator().reset(deployment);
+            log.debug("Fetched the keys of realm [{}]", deployment.getRealm());
+        } catch (RuntimeException e) {
+            log.warn("Could not fetch the keys of realm [{}], they will be fetched on demand", deployment.getRealm(), e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.keycloak.representations.AccessToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of access tokens whose signature has already been verified,
+ * keyed by the SHA-256 of the encoded token, so the raw tokens are never
+ * kept around. Entries expire when their token does.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class VerifiedTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final Cache<String, AccessToken> cache;
+
+    VerifiedTokenCache(MeterRegistry meterRegistry,
+                       @Value("${notes.security.token-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpires())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokens");
+        log.info("Caching up to [{}] verified access tokens", maxSize);
+    }
+
+    Optional<AccessToken> get(String encoded) {
+        return Optional.ofNullable(cache.getIfPresent(hash(encoded)))
+                .filter(AccessToken::isActive);
+    }
+
+    /*
+     * Tokens without an expiration would otherwise stay until evicted, they
+     * are verified every time instead.
+     */
+    void put(String encoded, AccessToken token) {
+        if (token.getExp() != null && token.isActive()) {
+            cache.put(hash(encoded), token);
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String hash(String encoded) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(encoded.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, AccessToken> {
+
+        @Override
+        public long expireAfterCreate(String key, AccessToken token, long currentTime) {
+            var millis = TimeUnit.SECONDS.toMillis(token.getExp()) - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, AccessToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, AccessToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
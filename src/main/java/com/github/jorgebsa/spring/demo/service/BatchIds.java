@@ -0,0 +1,33 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.base.BatchItemResult;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/*
+ * A batch naming the same note more than once has no sensible outcome for
+ * it, whichever item is applied first would make the others miss, so every
+ * item naming such a note is rejected before anything is written.
+ */
+final class BatchIds {
+
+    private BatchIds() {
+    }
+
+    static Set<String> duplicatesOf(List<String> ids) {
+        var seen = new HashSet<String>(ids.size());
+        return ids.stream()
+                .filter(id -> !seen.add(id))
+                .collect(Collectors.toSet());
+    }
+
+    static <T> BatchItemResult<T> duplicateFailure(int index, String id) {
+        return BatchItemResult.failure(index, BAD_REQUEST.value(), List.of(new Violation("id", "note [" + id + "] appears more than once in the batch")));
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of complete notes by id. Caffeine's W-TinyLFU
+ * admission keeps the frequently read notes even under scans, the weigher
+ * keeps the cache within its heap budget and entries expire after a TTL.
+ * Writes made by other instances are only seen through NoteChangedEvents,
+ * so running more than one instance requires the change stream listener,
+ * otherwise the TTL is all that bounds staleness.
+ */
+@Component
+public class NoteCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteCache.class);
+
+    /*
+     * Rough shallow size of a Note with its strings, instant and boxed
+     * fields, not counting the characters themselves.
+     */
+    private static final int NOTE_OVERHEAD_BYTES = 256;
+
+    private final Cache<String, Note> cache;
+
+    NoteCache(MeterRegistry meterRegistry,
+              @Value("${notes.cache.max-heap:64MB}") DataSize maxHeap,
+              @Value("${notes.cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxHeap.toBytes())
+                .weigher(NoteCache::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notes");
+        log.info("Caching notes within [{}] of heap for [{}]", maxHeap, ttl);
+    }
+
+    private static int weigh(String id, Note note) {
+        long chars = id.length() + length(note.getUsername()) + length(note.getContent());
+        return (int) Math.min(Integer.MAX_VALUE, NOTE_OVERHEAD_BYTES + 2 * chars);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    Optional<Note> get(String id) {
+        return Optional.ofNullable(cache.getIfPresent(id));
+    }
+
+    /*
+     * The loader runs while holding the entry, so a removal invalidating
+     * the note meanwhile waits for it and then drops what it read, instead
+     * of the read putting back a note that no longer exists.
+     */
+    Optional<Note> get(String id, Function<String, Optional<Note>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /*
+     * Concurrent requests may complete out of order, so a note only
+     * replaces the cached one if it is at least as recent.
+     */
+    void put(Note note) {
+        cache.asMap().merge(note.getId(), note, (cached, fresh) -> fresh.getVersion() >= cached.getVersion() ? fresh : cached);
+    }
+
+    /**
+     * Drops the note unless the cached copy is already at least as recent
+     * as {@code version}, which is the case when the change was our own.
+     */
+    void invalidate(String id, long version) {
+        cache.asMap().computeIfPresent(id, (key, cached) -> cached.getVersion() >= version ? cached : null);
+    }
+
+    void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @EventListener
+    void onNoteChanged(NoteChangedEvent event) {
+        if (event.id() == null) {
+            log.info("Flushing [{}] cached notes", cache.estimatedSize());
+            invalidateAll();
+        } else if (event.version() == null) {
+            invalidate(event.id());
+        } else {
+            invalidate(event.id(), event.version());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.exception.InvalidParameterException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/*
+ * Position of a keyset scroll: the sort key, its direction and the sort
+ * value and id of the last note already returned. Clients only ever see
+ * it as an opaque, URL-safe token.
+ */
+record NoteCursor(ScrollKey key, Sort.Direction direction, Instant lastValue, String lastId) {
+
+    private static final String SEPARATOR = ":";
+    private static final String PARAMETER = "cursor";
+
+    static NoteCursor start(ScrollKey key, Sort.Direction direction) {
+        return new NoteCursor(key, direction, null, null);
+    }
+
+    /*
+     * Resolves the position requested by a client: either the cursor it got
+     * from a previous slice, or the start of a scroll on the given sort.
+     */
+    static NoteCursor resolve(String cursor, String sort, Sort.Direction direction) {
+        if (cursor != null) {
+            return decode(cursor);
+        }
+        var key = ScrollKey.fromProperty(sort)
+                .orElseThrow(() -> new InvalidParameterException("sort", "unsupported value: " + sort));
+        return start(key, direction);
+    }
+
+    NoteCursor after(Note note) {
+        return new NoteCursor(key, direction, key.valueOf(note), note.getId());
+    }
+
+    boolean isStart() {
+        return lastId == null;
+    }
+
+    String encode() {
+        var raw = String.join(SEPARATOR, key.property(), direction.name(), String.valueOf(lastValue.toEpochMilli()), lastId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static NoteCursor decode(String token) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4 || parts[3].isBlank()) {
+                throw new InvalidParameterException(PARAMETER, "invalid value");
+            }
+            var key = ScrollKey.fromProperty(parts[0])
+                    .orElseThrow(() -> new InvalidParameterException(PARAMETER, "invalid value"));
+            var direction = Sort.Direction.valueOf(parts[1]);
+            var lastValue = Instant.ofEpochMilli(Long.parseLong(parts[2]));
+            return new NoteCursor(key, direction, lastValue, parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e, PARAMETER, "invalid value");
+        }
+    }
+}
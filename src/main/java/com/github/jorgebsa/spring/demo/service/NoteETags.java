@@ -0,0 +1,92 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.dao.Note;
+import org.springframework.data.domain.Page;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/*
+ * ETags derived from what a representation is made of rather than from its
+ * serialized bytes, so they can be computed from a lookup that only reads
+ * ids and versions. A note changes version on every write, and both the
+ * selected fields and the negotiated media type are part of the tag since
+ * they change the body. Since the tags don't follow the exact bytes sent,
+ * gzipped or not, they are weak, which also lets Tomcat compress responses
+ * carrying them.
+ */
+final class NoteETags {
+
+    static final Set<NoteField> KEYS = Collections.unmodifiableSet(EnumSet.of(NoteField.ID, NoteField.VERSION));
+
+    private static final int PAGE_TAG_BYTES = 16;
+
+    private NoteETags() {
+    }
+
+    /**
+     * The fields to read so that both the requested fields and the tag can be built.
+     */
+    static Set<NoteField> withKeys(Set<NoteField> fields) {
+        if (fields.containsAll(KEYS)) {
+            return fields;
+        }
+        var withKeys = EnumSet.copyOf(fields);
+        withKeys.addAll(KEYS);
+        return withKeys;
+    }
+
+    /**
+     * @param representation the media type the note is sent as
+     */
+    static String ofNote(Note note, Set<NoteField> fields, String representation) {
+        return weak(note.getId() + "-" + note.getVersion() + "-" + mask(fields) + "-" + representation);
+    }
+
+    /*
+     * Besides the ids and versions of its notes, a page also shows where it
+     * is and how many notes there are in total, which any insert or removal
+     * elsewhere changes.
+     */
+    static String ofPage(Page<Note> page, Set<NoteField> fields, String representation) {
+        var digest = sha256();
+        update(digest, page.getNumber() + ":" + page.getSize() + ":" + page.getSort() + ":" + page.getTotalElements() + ":" + mask(fields) + ":" + representation);
+        for (var note : page.getContent()) {
+            update(digest, "|" + note.getId() + ":" + note.getVersion());
+        }
+        var hash = digest.digest();
+        var tag = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, PAGE_TAG_BYTES));
+        return weak(tag);
+    }
+
+    private static String mask(Set<NoteField> fields) {
+        var mask = 0;
+        for (var field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return Integer.toHexString(mask);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+
+    private static String weak(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+}
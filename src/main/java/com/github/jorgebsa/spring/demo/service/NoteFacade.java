@@ -1,24 +1,79 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.BatchResponse;
+import com.github.jorgebsa.spring.demo.base.BatchUpdateNoteRequest;
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.NoteSuggestion;
+import com.github.jorgebsa.spring.demo.base.PatchNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.Tagged;
 import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface NoteFacade {
 
     SaveNoteResponse saveNote(SaveNoteRequest request, String username);
 
-    Page<NoteDTO> getPage(Pageable pageable);
+    BatchResponse<SaveNoteResponse> saveNotes(List<SaveNoteRequest> requests, String username);
 
-    Optional<NoteDTO> findById(String id);
+    /**
+     * @param exact          whether the total must be counted, rather than read from the note counters
+     * @param representation the media type the page is sent as, which is part of its ETag
+     */
+    Tagged<Page<NoteDTO>> getPage(Pageable pageable, Set<NoteField> fields, boolean exact, String representation);
+
+    /**
+     * The ETag {@link #getPage} would tag the same page with, read from the ids and versions alone.
+     */
+    String findPageETag(Pageable pageable, Set<NoteField> fields, boolean exact, String representation);
+
+    /**
+     * @param username only notes of this owner, unless null
+     */
+    Page<NoteSearchResult> search(String text, String username, Pageable pageable, Set<NoteField> fields);
+
+    /**
+     * @param username  only notes of this owner, unless null
+     * @param substring whether {@code text} may match anywhere in a word, rather than at its start
+     */
+    List<NoteSuggestion> suggest(String text, String username, int limit, boolean substring);
+
+    NoteSlice scroll(String cursor, String sort, Sort.Direction direction, int size, Set<NoteField> fields);
+
+    /**
+     * @param representation the media type the note is sent as, which is part of its ETag
+     */
+    Optional<Tagged<NoteDTO>> findById(String id, Set<NoteField> fields, String representation);
+
+    /**
+     * The ETag {@link #findById} would tag the same note with, read from its version alone.
+     */
+    Optional<String> findETag(String id, Set<NoteField> fields, String representation);
+
+    /**
+     * Streams every matching note, backed by an open Mongo cursor that is only released when the stream is closed.
+     */
+    Stream<NoteDTO> export(String owner, Long modifiedSince);
 
     Optional<NoteDTO> updateNote(UpdateNoteRequest request, String username, String id);
 
-    Optional<NoteDTO> removeNote(String id);
+    BatchResponse<NoteDTO> updateNotes(List<BatchUpdateNoteRequest> requests, String username);
+
+    Optional<NoteDTO> patchNote(PatchNoteRequest request, String username, String id);
+
+    Optional<NoteDTO> removeNote(String id, String username, boolean admin);
+
+    BatchResponse<NoteDTO> removeNotes(List<String> ids, String username, boolean admin);
 
 }
@@ -1,27 +1,54 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.BatchResponse;
+import com.github.jorgebsa.spring.demo.base.BatchUpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.base.ContentOperation;
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.NoteSuggestion;
+import com.github.jorgebsa.spring.demo.base.PatchNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.Tagged;
 import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.dao.ContentEdit;
+import com.github.jorgebsa.spring.demo.dao.ContentUpdate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class NoteFacadeImpl implements NoteFacade {
 
+    private static final int SNIPPET_LENGTH = 80;
+
+    private static final Set<NoteField> BATCH_FIELDS = EnumSet.of(NoteField.ID, NoteField.USERNAME, NoteField.LAST_MODIFIED_AT, NoteField.VERSION);
+
     private final NotePersistenceService persistenceService;
     private final NoteRetrievalService retrievalService;
     private final NoteRemovalService removalService;
+    @Nullable
+    private final NoteSuggestionIndex suggestions;
     private final NoteMapper mapper;
 
-    public NoteFacadeImpl(NotePersistenceService persistenceService, NoteRetrievalService retrievalService, NoteRemovalService removalService, NoteMapper mapper) {
+    public NoteFacadeImpl(NotePersistenceService persistenceService, NoteRetrievalService retrievalService, NoteRemovalService removalService,
+                          ObjectProvider<NoteSuggestionIndex> suggestions, NoteMapper mapper) {
         this.persistenceService = persistenceService;
         this.retrievalService = retrievalService;
         this.removalService = removalService;
+        this.suggestions = suggestions.getIfAvailable();
         this.mapper = mapper;
     }
 
@@ -32,15 +59,69 @@ public class NoteFacadeImpl implements NoteFacade {
     }
 
     @Override
-    public Page<NoteDTO> getPage(Pageable pageable) {
-        var page = retrievalService.getPage(pageable);
-        return page.map(mapper::toDTO);
+    public BatchResponse<SaveNoteResponse> saveNotes(List<SaveNoteRequest> requests, String username) {
+        var contents = requests.stream().map(SaveNoteRequest::content).toList();
+        var results = persistenceService.saveNotes(username, contents)
+                .stream()
+                .map(result -> result.map(mapper::toSaveNoteResponse))
+                .toList();
+        return BatchResponse.of(results);
+    }
+
+    @Override
+    public Tagged<Page<NoteDTO>> getPage(Pageable pageable, Set<NoteField> fields, boolean exact, String representation) {
+        var page = retrievalService.getPage(pageable, NoteETags.withKeys(fields), exact);
+        return new Tagged<>(page.map(note -> mapper.toDTO(note, fields)), NoteETags.ofPage(page, fields, representation));
+    }
+
+    @Override
+    public String findPageETag(Pageable pageable, Set<NoteField> fields, boolean exact, String representation) {
+        var page = retrievalService.getPage(pageable, NoteETags.KEYS, exact);
+        return NoteETags.ofPage(page, fields, representation);
+    }
+
+    @Override
+    public Page<NoteSearchResult> search(String text, String username, Pageable pageable, Set<NoteField> fields) {
+        var page = retrievalService.search(text, username, pageable, fields);
+        return page.map(note -> mapper.toSearchResult(note, fields));
+    }
+
+    @Override
+    public List<NoteSuggestion> suggest(String text, String username, int limit, boolean substring) {
+        if (suggestions == null) {
+            return List.of();
+        }
+        return suggestions.find(text, username, limit, substring)
+                .stream()
+                .map(match -> new NoteSuggestion(match.entry().id(), match.entry().username(), match.snippet(SNIPPET_LENGTH)))
+                .toList();
+    }
+
+    @Override
+    public NoteSlice scroll(String cursor, String sort, Sort.Direction direction, int size, Set<NoteField> fields) {
+        var position = NoteCursor.resolve(cursor, sort, direction);
+        var window = retrievalService.scroll(position, size, fields);
+        var content = window.notes().stream().map(note -> mapper.toDTO(note, fields)).toList();
+        var next = window.next() == null ? null : window.next().encode();
+        return new NoteSlice(content, next);
     }
 
     @Override
-    public Optional<NoteDTO> findById(String id) {
-        var found = retrievalService.findById(id);
-        return found.map(mapper::toDTO);
+    public Optional<Tagged<NoteDTO>> findById(String id, Set<NoteField> fields, String representation) {
+        var found = retrievalService.findById(id, NoteETags.withKeys(fields));
+        return found.map(note -> new Tagged<>(mapper.toDTO(note, fields), NoteETags.ofNote(note, fields, representation)));
+    }
+
+    @Override
+    public Optional<String> findETag(String id, Set<NoteField> fields, String representation) {
+        var found = retrievalService.findById(id, NoteETags.KEYS);
+        return found.map(note -> NoteETags.ofNote(note, fields, representation));
+    }
+
+    @Override
+    public Stream<NoteDTO> export(String owner, Long modifiedSince) {
+        var since = modifiedSince == null ? null : Instant.ofEpochMilli(modifiedSince);
+        return retrievalService.stream(owner, since).map(mapper::toDTO);
     }
 
     @Override
@@ -50,8 +131,44 @@ public class NoteFacadeImpl implements NoteFacade {
     }
 
     @Override
-    public Optional<NoteDTO> removeNote(String id) {
-        var removed = removalService.remove(id);
+    public BatchResponse<NoteDTO> updateNotes(List<BatchUpdateNoteRequest> requests, String username) {
+        var updates = requests.stream()
+                .map(request -> new ContentUpdate(request.id(), request.version(), request.content()))
+                .toList();
+        var results = persistenceService.updateNotes(username, updates)
+                .stream()
+                .map(result -> result.map(note -> mapper.toDTO(note, BATCH_FIELDS)))
+                .toList();
+        return BatchResponse.of(results);
+    }
+
+    @Override
+    public Optional<NoteDTO> patchNote(PatchNoteRequest request, String username, String id) {
+        var edits = request.operations().stream().map(NoteFacadeImpl::toEdit).toList();
+        var edited = persistenceService.editNote(username, edits, id, request.version());
+        return edited.map(mapper::toDTO);
+    }
+
+    private static ContentEdit toEdit(ContentOperation operation) {
+        return switch (operation.op()) {
+            case APPEND -> ContentEdit.append(operation.text());
+            case PREPEND -> ContentEdit.prepend(operation.text());
+            case REPLACE -> ContentEdit.replace(operation.start(), operation.end(), operation.text());
+        };
+    }
+
+    @Override
+    public Optional<NoteDTO> removeNote(String id, String username, boolean admin) {
+        var removed = removalService.remove(id, username, admin);
         return removed.map(mapper::toDTO);
     }
+
+    @Override
+    public BatchResponse<NoteDTO> removeNotes(List<String> ids, String username, boolean admin) {
+        var results = removalService.removeAll(ids, username, admin)
+                .stream()
+                .map(result -> result.map(note -> mapper.toDTO(note, BATCH_FIELDS)))
+                .toList();
+        return BatchResponse.of(results);
+    }
 }
@@ -1,12 +1,20 @@
 package com.github.jorgebsa.spring.demo.service;
 
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
 import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
 import com.github.jorgebsa.spring.demo.dao.Note;
 
+import java.util.Set;
+
 public interface NoteMapper {
 
     NoteDTO toDTO(Note note);
 
+    NoteDTO toDTO(Note note, Set<NoteField> fields);
+
+    NoteSearchResult toSearchResult(Note note, Set<NoteField> fields);
+
     SaveNoteResponse toSaveNoteResponse(Note note);
 }
@@ -1,25 +1,47 @@
 package com.github.jorgebsa.spring.demo.service;
 
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
 import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
 import com.github.jorgebsa.spring.demo.dao.Note;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Set;
+
+import static com.github.jorgebsa.spring.demo.base.NoteField.CONTENT;
+import static com.github.jorgebsa.spring.demo.base.NoteField.CREATED_AT;
+import static com.github.jorgebsa.spring.demo.base.NoteField.ID;
+import static com.github.jorgebsa.spring.demo.base.NoteField.LAST_MODIFIED_AT;
+import static com.github.jorgebsa.spring.demo.base.NoteField.USERNAME;
+import static com.github.jorgebsa.spring.demo.base.NoteField.VERSION;
+
 @Service
 class NoteMapperImpl implements NoteMapper {
 
     @Override
     public NoteDTO toDTO(Note note) {
+        return toDTO(note, NoteField.ALL);
+    }
+
+    @Override
+    public NoteDTO toDTO(Note note, Set<NoteField> fields) {
         return new NoteDTO(
-                note.getId(),
-                note.getUsername(),
-                note.getContent(),
-                note.getCreatedAt().toEpochMilli(),
-                note.getLastModifiedAt().toEpochMilli(),
-                note.getVersion()
+                fields.contains(ID) ? note.getId() : null,
+                fields.contains(USERNAME) ? note.getUsername() : null,
+                fields.contains(CONTENT) ? note.getContent() : null,
+                fields.contains(CREATED_AT) ? toEpochMilli(note.getCreatedAt()) : null,
+                fields.contains(LAST_MODIFIED_AT) ? toEpochMilli(note.getLastModifiedAt()) : null,
+                fields.contains(VERSION) ? Long.valueOf(note.getVersion()) : null
         );
     }
 
+    @Override
+    public NoteSearchResult toSearchResult(Note note, Set<NoteField> fields) {
+        return new NoteSearchResult(toDTO(note, fields), note.getScore());
+    }
+
     @Override
     public SaveNoteResponse toSaveNoteResponse(Note note) {
         return new SaveNoteResponse(
@@ -31,4 +53,8 @@ class NoteMapperImpl implements NoteMapper {
         );
     }
 
+    private static Long toEpochMilli(Instant instant) {
+        return instant == null ? null : instant.toEpochMilli();
+    }
+
 }
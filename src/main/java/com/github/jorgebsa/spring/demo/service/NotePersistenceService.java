@@ -1,12 +1,22 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.BatchItemResult;
+import com.github.jorgebsa.spring.demo.dao.ContentEdit;
+import com.github.jorgebsa.spring.demo.dao.ContentUpdate;
 import com.github.jorgebsa.spring.demo.dao.Note;
 
+import java.util.List;
 import java.util.Optional;
 
 interface NotePersistenceService {
 
     Note saveNote(String username, String content);
 
+    List<BatchItemResult<Note>> saveNotes(String username, List<String> contents);
+
     Optional<Note> updateNote(String username, String content, String id, long version);
+
+    List<BatchItemResult<Note>> updateNotes(String username, List<ContentUpdate> updates);
+
+    Optional<Note> editNote(String username, List<ContentEdit> edits, String id, long version);
 }
@@ -1,73 +1,290 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.BatchItemResult;
+import com.github.jorgebsa.spring.demo.dao.ContentEdit;
+import com.github.jorgebsa.spring.demo.dao.ContentUpdate;
 import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
 import com.github.jorgebsa.spring.demo.dao.NoteRepository;
+import com.github.jorgebsa.spring.demo.dao.WriteFailure;
 import com.github.jorgebsa.spring.demo.exception.IncorrectVersionException;
+import com.github.jorgebsa.spring.demo.exception.InvalidParameterException;
 import com.github.jorgebsa.spring.demo.exception.NotSameUserException;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+
 @Service
 class NotePersistenceServiceImpl implements NotePersistenceService {
 
     private static final Logger log = LoggerFactory.getLogger(NotePersistenceServiceImpl.class);
 
     private final NoteRepository repository;
+    private final NoteCache cache;
+    private final NoteCounters counters;
+    private final ObjectProvider<NoteSuggestionIndex> suggestions;
+    private final int chunkSize;
+
+    /* Only there when group commit is enabled */
+    @Nullable
+    private final NoteWriteBuffer writeBuffer;
 
-    NotePersistenceServiceImpl(NoteRepository repository) {
+    NotePersistenceServiceImpl(NoteRepository repository, NoteCache cache, NoteCounters counters, ObjectProvider<NoteSuggestionIndex> suggestions,
+                               ObjectProvider<NoteWriteBuffer> writeBuffer,
+                               @Value("${notes.batch.chunk-size:500}") int chunkSize) {
         this.repository = repository;
+        this.cache = cache;
+        this.counters = counters;
+        this.suggestions = suggestions;
+        this.writeBuffer = writeBuffer.getIfAvailable();
+        this.chunkSize = chunkSize;
     }
 
     @Override
     @Transactional
     public Note saveNote(String username, String content) {
         log.debug("User [{}] is trying to save note with content: {}", username, content);
-        var note = new Note(username, content);
-        var saved = repository.insert(note);
+        var saved = writeBuffer == null ? insert(username, content) : writeBuffer.insert(newNote(username, content, Instant.now()));
         log.info(
                 "User [{}] created note [{}] at [{}] with version [{}]",
                 saved.getUsername(), saved.getId(), saved.getCreatedAt(), saved.getVersion()
         );
+        cache.put(saved);
+        suggestions.ifAvailable(index -> index.put(saved));
+        return saved;
+    }
+
+    private Note insert(String username, String content) {
+        var saved = repository.insert(new Note(username, content));
+        counters.increment(username, 1);
         return saved;
     }
 
+    @Override
+    public List<BatchItemResult<Note>> saveNotes(String username, List<String> contents) {
+        log.debug("User [{}] is trying to save [{}] notes", username, contents.size());
+        var now = Instant.now();
+        var notes = contents.stream().map(content -> newNote(username, content, now)).toList();
+
+        var results = new ArrayList<BatchItemResult<Note>>(notes.size());
+        for (int start = 0; start < notes.size(); start += chunkSize) {
+            var chunk = notes.subList(start, Math.min(start + chunkSize, notes.size()));
+            var failures = repository.insertUnordered(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                var failure = failures.get(i);
+                var note = chunk.get(i);
+                if (failure == null) {
+                    suggestions.ifAvailable(index -> index.put(note));
+                    results.add(BatchItemResult.success(start + i, CREATED.value(), note));
+                } else {
+                    results.add(insertFailure(start + i, note, failure));
+                }
+            }
+        }
+
+        var created = results.stream().filter(BatchItemResult::isSuccess).count();
+        counters.increment(username, created);
+        log.info("User [{}] created [{}] of [{}] notes in a batch", username, created, notes.size());
+        return results;
+    }
+
+    /*
+     * Bulk writes, group commits included, don't go through the repository's
+     * insert, so the id, audit timestamps and initial version are assigned up
+     * front, the same way a single insert would assign them.
+     */
+    private static Note newNote(String username, String content, Instant now) {
+        var note = new Note(username, content);
+        note.setId(ObjectId.get().toHexString());
+        note.setCreatedAt(now);
+        note.setLastModifiedAt(now);
+        note.setVersion(1L);
+        return note;
+    }
+
     @Override
     @Transactional
     public Optional<Note> updateNote(String username, String content, String id, long version) {
         log.debug("User [{}] is trying to update note [{}]", username, id);
 
-        var found = repository.findById(id);
+        var found = repository.updateContent(id, username, version, content);
+        if (found.isEmpty()) {
+            return explainMissedUpdate(Write.REPLACE, username, id, version);
+        }
+
+        var updated = found.get();
+        log.info(
+                "User [{}] updated note [{}] with content [{}] at [{}]",
+                username, updated.getId(), updated.getContent(), updated.getLastModifiedAt()
+        );
+        cache.put(updated);
+        suggestions.ifAvailable(index -> index.put(updated));
+
+        return Optional.of(updated);
+    }
+
+    @Override
+    public Optional<Note> editNote(String username, List<ContentEdit> edits, String id, long version) {
+        log.debug("User [{}] is trying to apply [{}] edits to note [{}]", username, edits.size(), id);
+
+        var found = repository.editContent(id, username, version, edits);
+        if (found.isEmpty()) {
+            return explainMissedUpdate(Write.EDIT, username, id, version);
+        }
+
+        var edited = found.get();
+        log.info(
+                "User [{}] edited note [{}] at [{}] with version [{}]",
+                username, edited.getId(), edited.getLastModifiedAt(), edited.getVersion()
+        );
+        cache.put(edited);
+        suggestions.ifAvailable(index -> index.put(edited));
+
+        return Optional.of(edited);
+    }
+
+    /*
+     * The conditional update did not match, so we read just enough of the
+     * note to tell a missing note (404) from a foreign one (403) or from
+     * an outdated version (409). An edit also misses when it would leave
+     * the content blank (400), the only case where everything else holds.
+     * A replacement is validated as not blank up front, so it always
+     * reports the conflict.
+     */
+    private Optional<Note> explainMissedUpdate(Write write, String username, String id, long version) {
+        var found = repository.findOwnership(id);
         if (found.isEmpty()) {
             log.debug("Couldn't find note by id [{}]", id);
             return Optional.empty();
         }
 
         var note = found.get();
-
         if (!note.getUsername().equals(username)) {
             throw new NotSameUserException(note.getId(), note.getUsername(), username);
         }
+        if (write == Write.EDIT && note.getVersion() == version) {
+            throw new InvalidParameterException("operations", "must not leave the content blank");
+        }
+        throw new IncorrectVersionException(id, username, version);
+    }
 
-        note.setContent(content);
-        note.setVersion(version);
+    /*
+     * Each chunk is a single unordered bulk, every update filtered by its
+     * own id, owner and version. The bulk only reports how many notes
+     * matched, so when some didn't, one projection read of the chunk tells
+     * which, and explains each miss the same way a single update miss is.
+     * Driver errors are logged rather than handed to the client.
+     */
+    @Override
+    public List<BatchItemResult<Note>> updateNotes(String username, List<ContentUpdate> updates) {
+        log.debug("User [{}] is trying to update [{}] notes", username, updates.size());
 
-        Note updated;
-        try {
-            updated = repository.save(note);
-        } catch (OptimisticLockingFailureException e) {
-            throw new IncorrectVersionException(e, id, username, version);
+        var duplicates = BatchIds.duplicatesOf(updates.stream().map(ContentUpdate::id).toList());
+        var results = new ArrayList<BatchItemResult<Note>>(updates.size());
+        for (int start = 0; start < updates.size(); start += chunkSize) {
+            var chunk = updates.subList(start, Math.min(start + chunkSize, updates.size()));
+            var outcomes = new ArrayList<BatchItemResult<Note>>(Collections.nCopies(chunk.size(), null));
+            var sent = new ArrayList<ContentUpdate>(chunk.size());
+            var positions = new ArrayList<Integer>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                var update = chunk.get(i);
+                if (duplicates.contains(update.id())) {
+                    outcomes.set(i, BatchIds.duplicateFailure(start + i, update.id()));
+                } else {
+                    sent.add(update);
+                    positions.add(i);
+                }
+            }
+            var now = Instant.now();
+            try {
+                var written = repository.updateContentsUnordered(username, sent, now);
+                for (int j = 0; j < sent.size(); j++) {
+                    var update = sent.get(j);
+                    int position = start + positions.get(j);
+                    if (written.applied().contains(j)) {
+                        var note = updatedNote(username, update, now);
+                        cache.invalidate(update.id());
+                        suggestions.ifAvailable(index -> index.put(note));
+                        outcomes.set(positions.get(j), BatchItemResult.success(position, OK.value(), note));
+                    } else if (written.failures().containsKey(j)) {
+                        log.warn("Could not update note [{}] in a batch: {}", update.id(), written.failures().get(j).message());
+                        outcomes.set(positions.get(j), notWritten(position, update.id()));
+                    } else {
+                        outcomes.set(positions.get(j), missOf(position, update, written.missed().get(update.id()), username));
+                    }
+                }
+            } catch (DataAccessException e) {
+                log.error("Could not update a chunk of [{}] notes", sent.size(), e);
+                for (int j = 0; j < sent.size(); j++) {
+                    outcomes.set(positions.get(j), notWritten(start + positions.get(j), sent.get(j).id()));
+                }
+            }
+            results.addAll(outcomes);
         }
 
-        log.info(
-                "User [{}] updated note [{}] with content [{}] at [{}]",
-                username, updated.getId(), updated.getContent(), updated.getLastModifiedAt()
-        );
+        var updated = results.stream().filter(BatchItemResult::isSuccess).count();
+        log.info("User [{}] updated [{}] of [{}] notes in a batch", username, updated, updates.size());
+        return results;
+    }
 
-        return Optional.of(updated);
+    /* The bulk only reports the updated count, so the note is rebuilt from what was written */
+    private static Note updatedNote(String username, ContentUpdate update, Instant now) {
+        var note = new Note(username, update.content());
+        note.setId(update.id());
+        note.setLastModifiedAt(now);
+        note.setVersion(update.version() + 1);
+        return note;
+    }
+
+    /* The driver's message names collections and indexes, so it is only logged */
+    private static BatchItemResult<Note> insertFailure(int index, Note note, WriteFailure failure) {
+        log.warn("Could not insert note [{}] in a batch: {}", note.getId(), failure.message());
+        return switch (failure.kind()) {
+            case DUPLICATE_KEY -> BatchItemResult.failure(index, CONFLICT.value(), List.of(new Violation("id", "note [" + note.getId() + "] already exists")));
+            case INVALID -> BatchItemResult.failure(index, BAD_REQUEST.value(), List.of(new Violation("content", "is not a valid note")));
+            case OTHER -> notWritten(index, note.getId());
+        };
+    }
+
+    private static BatchItemResult<Note> notWritten(int index, String id) {
+        return BatchItemResult.failure(index, INTERNAL_SERVER_ERROR.value(), List.of(new Violation("id", "note [" + id + "] could not be written")));
+    }
+
+    private static BatchItemResult<Note> missOf(int index, ContentUpdate update, @Nullable Note note, String username) {
+        if (note == null) {
+            return BatchItemResult.failure(index, NOT_FOUND.value(), List.of(new Violation("id", "note [" + update.id() + "] not found")));
+        }
+        if (!note.getUsername().equals(username)) {
+            var violation = new NotSameUserException(note.getId(), note.getUsername(), username).toViolation();
+            return BatchItemResult.failure(index, FORBIDDEN.value(), List.of(violation));
+        }
+        var violation = new IncorrectVersionException(update.id(), username, update.version()).toViolation();
+        return BatchItemResult.failure(index, CONFLICT.value(), List.of(violation));
+    }
+
+    private enum Write {
+        REPLACE,
+        EDIT
     }
 }
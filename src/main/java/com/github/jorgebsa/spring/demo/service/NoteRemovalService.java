@@ -1,10 +1,14 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.BatchItemResult;
 import com.github.jorgebsa.spring.demo.dao.Note;
 
+import java.util.List;
 import java.util.Optional;
 
 interface NoteRemovalService {
 
-    Optional<Note> remove(String id);
+    Optional<Note> remove(String id, String username, boolean admin);
+
+    List<BatchItemResult<Note>> removeAll(List<String> ids, String username, boolean admin);
 }
@@ -1,36 +1,145 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.BatchItemResult;
 import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
 import com.github.jorgebsa.spring.demo.dao.NoteRepository;
+import com.github.jorgebsa.spring.demo.exception.NotSameUserException;
+import com.github.jorgebsa.spring.demo.validation.Violation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+
 @Service
 class NoteRemovalServiceImpl implements NoteRemovalService {
 
     private static final Logger log = LoggerFactory.getLogger(NoteRemovalServiceImpl.class);
 
     private final NoteRepository repository;
+    private final NoteCache cache;
+    private final NoteCounters counters;
+    private final ObjectProvider<NoteSuggestionIndex> suggestions;
+    private final int chunkSize;
 
-    NoteRemovalServiceImpl(NoteRepository repository) {
+    NoteRemovalServiceImpl(NoteRepository repository, NoteCache cache, NoteCounters counters, ObjectProvider<NoteSuggestionIndex> suggestions,
+                           @Value("${notes.batch.chunk-size:500}") int chunkSize) {
         this.repository = repository;
+        this.cache = cache;
+        this.counters = counters;
+        this.suggestions = suggestions;
+        this.chunkSize = chunkSize;
     }
 
     @Override
-    public Optional<Note> remove(String id) {
-        log.info("REMOVING NOTE BY ID: [{}]", id);
-        var optional = repository.findById(id);
-        if (optional.isEmpty()) {
-            log.info("Could not find note by id [{}] in order to remove it", id);
-            return Optional.empty();
+    public Optional<Note> remove(String id, String username, boolean admin) {
+        log.info("User [{}] is removing note by id [{}]", username, id);
+        var removed = admin
+                ? repository.removeById(id)
+                : repository.removeByIdAndUsername(id, username);
+        if (removed.isEmpty()) {
+            return explainMissedRemoval(id, username, admin);
         }
-        var note = optional.get();
-        log.debug("FOUND NOTE [{}]", note.getId());
-        repository.delete(note);
+        var note = removed.get();
+        cache.invalidate(note.getId());
+        suggestions.ifAvailable(index -> index.remove(note.getId()));
+        counters.increment(note.getUsername(), -1);
         log.info("REMOVED NOTE BY ID [{}]", note.getId());
         return Optional.of(note);
     }
+
+    /*
+     * Admins aren't filtered by owner, so a miss can only mean the note
+     * doesn't exist. Everyone else may also have hit someone else's note.
+     */
+    private Optional<Note> explainMissedRemoval(String id, String username, boolean admin) {
+        var found = admin ? Optional.<Note>empty() : repository.findOwnership(id);
+        if (found.isEmpty()) {
+            log.info("Could not find note by id [{}] in order to remove it", id);
+            return Optional.empty();
+        }
+        var note = found.get();
+        throw new NotSameUserException(note.getId(), note.getUsername(), username);
+    }
+
+    /*
+     * Each chunk is read once, projecting the owner, version and last
+     * modification, which tells missing and foreign notes apart and is all
+     * the response needs of the removed ones, since they can't be read
+     * back afterwards. The rest is removed with a single unordered bulk
+     * whose filters still hold the owner that was read. The bulk removing
+     * fewer notes than it was sent can only mean concurrent removals, so
+     * the notes are gone either way, but which ones this request removed
+     * is unknown and the counters are left to the next reconciliation.
+     */
+    @Override
+    public List<BatchItemResult<Note>> removeAll(List<String> ids, String username, boolean admin) {
+        log.info("User [{}] is removing [{}] notes", username, ids.size());
+
+        var duplicates = BatchIds.duplicatesOf(ids);
+        var results = new ArrayList<BatchItemResult<Note>>(ids.size());
+        var deltas = new HashMap<String, Long>();
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            var chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            var found = repository.findOwnerships(chunk.stream().filter(id -> !duplicates.contains(id)).toList());
+            var outcomes = new ArrayList<BatchItemResult<Note>>(Collections.nCopies(chunk.size(), null));
+            var removable = new ArrayList<Note>(found.size());
+            var positions = new ArrayList<Integer>(found.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                var id = chunk.get(i);
+                var note = found.get(id);
+                if (duplicates.contains(id)) {
+                    outcomes.set(i, BatchIds.duplicateFailure(start + i, id));
+                } else if (note == null) {
+                    outcomes.set(i, BatchItemResult.failure(start + i, NOT_FOUND.value(), List.of(new Violation("id", "note [" + id + "] not found"))));
+                } else if (!admin && !note.getUsername().equals(username)) {
+                    var violation = new NotSameUserException(id, note.getUsername(), username).toViolation();
+                    outcomes.set(i, BatchItemResult.failure(start + i, FORBIDDEN.value(), List.of(violation)));
+                } else {
+                    removable.add(note);
+                    positions.add(i);
+                }
+            }
+            try {
+                var removed = repository.removeAllUnordered(removable);
+                if (removed < removable.size()) {
+                    log.warn("[{}] of [{}] notes were removed concurrently, leaving the counters to the next reconciliation", removable.size() - removed, removable.size());
+                }
+                for (int j = 0; j < removable.size(); j++) {
+                    var note = removable.get(j);
+                    cache.invalidate(note.getId());
+                    suggestions.ifAvailable(index -> index.remove(note.getId()));
+                    if (removed == removable.size()) {
+                        deltas.merge(note.getUsername(), -1L, Long::sum);
+                    }
+                    outcomes.set(positions.get(j), BatchItemResult.success(start + positions.get(j), OK.value(), note));
+                }
+            } catch (DataAccessException e) {
+                log.error("Could not remove a chunk of [{}] notes", removable.size(), e);
+                for (int j = 0; j < removable.size(); j++) {
+                    var violation = new Violation("id", "note [" + removable.get(j).getId() + "] could not be removed");
+                    outcomes.set(positions.get(j), BatchItemResult.failure(start + positions.get(j), INTERNAL_SERVER_ERROR.value(), List.of(violation)));
+                }
+            }
+            results.addAll(outcomes);
+        }
+
+        var removed = results.stream().filter(BatchItemResult::isSuccess).count();
+        counters.increment(deltas);
+        log.info("User [{}] removed [{}] of [{}] notes in a batch", username, removed, ids.size());
+        return results;
+    }
 }
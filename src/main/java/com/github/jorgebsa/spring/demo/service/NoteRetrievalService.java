@@ -1,14 +1,27 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.NoteField;
 import com.github.jorgebsa.spring.demo.dao.Note;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 interface NoteRetrievalService {
 
-    Page<Note> getPage(Pageable pageable);
+    /**
+     * @param exact whether the total must be counted, rather than read from the note counters
+     */
+    Page<Note> getPage(Pageable pageable, Set<NoteField> fields, boolean exact);
 
-    Optional<Note> findById(String id);
+    NoteWindow scroll(NoteCursor position, int size, Set<NoteField> fields);
+
+    Optional<Note> findById(String id, Set<NoteField> fields);
+
+    Page<Note> search(String text, String username, Pageable pageable, Set<NoteField> fields);
+
+    Stream<Note> stream(String owner, Instant modifiedSince);
 }
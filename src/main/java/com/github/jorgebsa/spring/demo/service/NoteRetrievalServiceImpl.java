@@ -1,14 +1,20 @@
 package com.github.jorgebsa.spring.demo.service;
 
+import com.github.jorgebsa.spring.demo.base.NoteField;
 import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
 import com.github.jorgebsa.spring.demo.dao.NoteRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 class NoteRetrievalServiceImpl implements NoteRetrievalService {
@@ -16,21 +22,63 @@ class NoteRetrievalServiceImpl implements NoteRetrievalService {
     private static final Logger log = LoggerFactory.getLogger(NoteRetrievalServiceImpl.class);
 
     private final NoteRepository repository;
+    private final NoteCache cache;
+    private final NoteCounters counters;
+    private final int streamBatchSize;
 
-    NoteRetrievalServiceImpl(NoteRepository repository) {
+    NoteRetrievalServiceImpl(NoteRepository repository, NoteCache cache, NoteCounters counters,
+                             @Value("${notes.export.batch-size:500}") int streamBatchSize) {
         this.repository = repository;
+        this.cache = cache;
+        this.counters = counters;
+        this.streamBatchSize = streamBatchSize;
     }
 
     @Override
-    public Page<Note> getPage(Pageable pageable) {
-        log.debug("Finding page of Notes with: {}", pageable);
-        return repository.findAll(pageable);
+    public Page<Note> getPage(Pageable pageable, Set<NoteField> fields, boolean exact) {
+        log.debug("Finding page of Notes with: {} and fields {}", pageable, fields);
+        var properties = NoteField.properties(fields);
+        return exact
+                ? repository.findAll(pageable, properties)
+                : repository.findAll(pageable, properties, counters::total);
     }
 
     @Override
-    public Optional<Note> findById(String id) {
-        log.debug("Finding note by id [{}]", id);
-        return repository.findById(id);
+    public NoteWindow scroll(NoteCursor position, int size, Set<NoteField> fields) {
+        log.debug("Scrolling [{}] Notes from: {}", size, position);
+        var notes = repository.findAfter(
+                position.key().property(), position.direction(), position.lastValue(), position.lastId(), size + 1,
+                NoteField.properties(fields)
+        );
+        return NoteWindow.of(notes, size, position);
+    }
+
+    @Override
+    public Optional<Note> findById(String id, Set<NoteField> fields) {
+        log.debug("Finding note by id [{}] with fields {}", id, fields);
+        /*
+         * Only complete notes are cached, so a projected read that misses
+         * goes to the database and leaves the cache alone, while any read
+         * that hits is narrowed down to the requested fields by the mapper.
+         */
+        var properties = NoteField.properties(fields);
+        if (properties.isEmpty()) {
+            return cache.get(id, key -> repository.findById(key, properties));
+        }
+        var cached = cache.get(id);
+        return cached.isPresent() ? cached : repository.findById(id, properties);
+    }
+
+    @Override
+    public Page<Note> search(String text, String username, Pageable pageable, Set<NoteField> fields) {
+        log.debug("Searching notes of [{}] for [{}] with: {} and fields {}", username, text, pageable, fields);
+        return repository.search(text, username, pageable, NoteField.properties(fields));
+    }
+
+    @Override
+    public Stream<Note> stream(String owner, Instant modifiedSince) {
+        log.debug("Streaming Notes of owner [{}] modified since [{}]", owner, modifiedSince);
+        return repository.stream(owner, modifiedSince, streamBatchSize);
     }
 
 }
@@ -0,0 +1,184 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteChangedEvent;
+import com.github.jorgebsa.spring.demo.dao.NoteRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps an in-process trigram index of the start of every note's content
+ * for type-ahead lookups. The services update it as they write, and it is
+ * rebuilt from Mongo on startup and then periodically, which also picks up
+ * notes created by other instances in between. Notes other instances
+ * update or remove are applied as the change stream reports them, when it
+ * is enabled. Only the servlet stack serves suggestions, so the reactive
+ * one doesn't keep it.
+ * <p>
+ * The index holds at most {@code max-indexed-notes} notes, and no more
+ * than {@code max-indexed-length} chars of each, which bounds its heap,
+ * and the heap of the second index a rebuild fills while the first one
+ * keeps serving. Notes past the limit aren't suggested.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NoteSuggestionIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteSuggestionIndex.class);
+
+    private static final List<String> INDEXED_PROPERTIES = List.of("username", "version", "content");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final NoteRepository repository;
+    private final Timer rebuildTimer;
+    private final int batchSize;
+    private final int maxIndexedLength;
+    private final int maxIndexedNotes;
+
+    private TrigramIndex index;
+
+    /* Writes applied while a rebuild runs, to be replayed onto its result */
+    private List<Consumer<TrigramIndex>> replay;
+
+    NoteSuggestionIndex(NoteRepository repository, MeterRegistry meterRegistry,
+                        @Value("${notes.suggest.rebuild-batch-size:1000}") int batchSize,
+                        @Value("${notes.suggest.max-indexed-length:1024}") int maxIndexedLength,
+                        @Value("${notes.suggest.max-indexed-notes:100000}") int maxIndexedNotes) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.maxIndexedLength = maxIndexedLength;
+        this.maxIndexedNotes = maxIndexedNotes;
+        this.index = new TrigramIndex(maxIndexedLength);
+        this.rebuildTimer = Timer.builder("notes.suggest.rebuild")
+                .description("Time taken to rebuild the suggestion index from Mongo")
+                .register(meterRegistry);
+        Gauge.builder("notes.suggest.indexed", this, suggestions -> suggestions.read(TrigramIndex::size))
+                .description("Notes in the suggestion index")
+                .register(meterRegistry);
+        Gauge.builder("notes.suggest.memory", this, suggestions -> suggestions.read(TrigramIndex::estimateBytes))
+                .description("Estimated heap taken by the suggestion index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    void put(Note note) {
+        write(index -> putWithinLimit(index, note));
+    }
+
+    private boolean putWithinLimit(TrigramIndex index, Note note) {
+        if (index.size() >= maxIndexedNotes && index.versionOf(note.getId()) == null) {
+            return false;
+        }
+        index.put(note.getId(), note.getUsername(), note.getVersion(), note.getContent());
+        return true;
+    }
+
+    void remove(String id) {
+        write(index -> index.remove(id));
+    }
+
+    List<TrigramIndex.Match> find(String text, @Nullable String username, int limit, boolean substring) {
+        return read(index -> index.find(text, username, limit, substring));
+    }
+
+    /*
+     * Only notes indexed at an older version are read back, which leaves
+     * out the writes of this very instance, already applied. A flush of
+     * unknown changes is left to the next rebuild.
+     */
+    @EventListener
+    void onNoteChanged(NoteChangedEvent event) {
+        if (event.id() == null) {
+            return;
+        }
+        if (event.version() == null) {
+            remove(event.id());
+            return;
+        }
+        var indexed = read(index -> index.versionOf(event.id()));
+        if (indexed != null && indexed < event.version()) {
+            repository.findById(event.id(), INDEXED_PROPERTIES).ifPresent(this::put);
+        }
+    }
+
+    /**
+     * Reads every note into a new index and swaps it in. Lookups keep
+     * being served by the current index in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${notes.suggest.rebuild-interval:PT15M}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.debug("Suggestion index is already being rebuilt");
+            return;
+        }
+        try {
+            exclusively(() -> replay = new ArrayList<>());
+            var sample = Timer.start();
+            var rebuilt = new TrigramIndex(maxIndexedLength);
+            try (var notes = repository.stream(null, null, batchSize)) {
+                var iterator = notes.iterator();
+                while (iterator.hasNext()) {
+                    var note = iterator.next();
+                    if (!putWithinLimit(rebuilt, note)) {
+                        log.warn("Suggestion index is full at [{}] notes, the notes modified after [{}] aren't suggested", maxIndexedNotes, note.getLastModifiedAt());
+                        break;
+                    }
+                }
+            }
+            exclusively(() -> {
+                replay.forEach(write -> write.accept(rebuilt));
+                index = rebuilt;
+            });
+            var elapsed = sample.stop(rebuildTimer);
+            log.info("Rebuilt suggestion index of [{}] notes in [{}] ms", rebuilt.size(), elapsed / 1_000_000);
+        } finally {
+            exclusively(() -> replay = null);
+            rebuilding.set(false);
+        }
+    }
+
+    private <T> T read(Function<TrigramIndex, T> lookup) {
+        lock.readLock().lock();
+        try {
+            return lookup.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<TrigramIndex> write) {
+        exclusively(() -> {
+            write.accept(index);
+            if (replay != null) {
+                replay.add(write);
+            }
+        });
+    }
+
+    private void exclusively(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
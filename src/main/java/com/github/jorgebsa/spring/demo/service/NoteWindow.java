@@ -0,0 +1,20 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+
+import java.util.List;
+
+record NoteWindow(List<Note> notes, NoteCursor next) {
+
+    /*
+     * Builds the window out of notes fetched with a limit of size + 1,
+     * where the extra note only tells whether there is anything after it.
+     */
+    static NoteWindow of(List<Note> notes, int size, NoteCursor position) {
+        if (notes.size() <= size) {
+            return new NoteWindow(notes, null);
+        }
+        var window = notes.subList(0, size);
+        return new NoteWindow(window, position.after(window.get(size - 1)));
+    }
+}
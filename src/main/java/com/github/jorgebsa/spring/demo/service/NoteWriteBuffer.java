@@ -0,0 +1,198 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
+import com.github.jorgebsa.spring.demo.dao.NoteRepository;
+import com.github.jorgebsa.spring.demo.dao.WriteFailure;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Group commit for single note inserts. Callers enqueue their note and wait
+ * for it to be written, while a single flusher thread writes whatever has
+ * been queued as one unordered bulk insert, either every max-delay or as
+ * soon as max-batch-size notes are waiting. Notes arrive with their id,
+ * timestamps and version already assigned, so the caller gets back the
+ * same note it would have gotten from its own insert, only later.
+ */
+@Component
+@ConditionalOnProperty(name = "notes.write-buffer.enabled", havingValue = "true")
+class NoteWriteBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteWriteBuffer.class);
+
+    private record Pending(Note note, CompletableFuture<Note> inserted) {
+    }
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final NoteRepository repository;
+    private final NoteCounters counters;
+    private final DistributionSummary batchSizes;
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    NoteWriteBuffer(NoteRepository repository, NoteCounters counters, MeterRegistry meterRegistry,
+                    @Value("${notes.write-buffer.max-batch-size:256}") int maxBatchSize,
+                    @Value("${notes.write-buffer.max-delay:5ms}") Duration maxDelay) {
+        this.repository = repository;
+        this.counters = counters;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.batchSizes = DistributionSummary.builder("notes.write-buffer.batch")
+                .description("Notes written by each group commit")
+                .register(meterRegistry);
+        Gauge.builder("notes.write-buffer.pending", queued, AtomicInteger::get)
+                .description("Notes waiting for the next group commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the note for the next group commit and waits for it, counting
+     * it as well.
+     *
+     * @throws org.springframework.dao.DataAccessException if the note could not be inserted
+     */
+    Note insert(Note note) {
+        var pending = new Pending(note, new CompletableFuture<>());
+        queue.add(pending);
+        /* The flusher may have drained the queue for the last time before the note got in */
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Note write buffer is stopped");
+        }
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            LockSupport.unpark(flusher);
+        }
+        try {
+            return pending.inserted().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        flusher = new Thread(this::flushContinuously, "notes-write-buffer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Group committing note inserts every [{}] or [{}] notes", maxDelay, maxBatchSize);
+    }
+
+    /*
+     * The web server's lifecycle runs at Integer.MAX_VALUE - 1. Being in an
+     * earlier phase, the buffer starts before it takes requests and only
+     * stops once it no longer does, so the final flush leaves no caller
+     * waiting and no request finds the buffer stopped.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flushContinuously() {
+        while (running) {
+            if (queued.get() < maxBatchSize) {
+                LockSupport.parkNanos(this, maxDelay.toNanos());
+            }
+            flush();
+        }
+        flush();
+    }
+
+    private void flush() {
+        var batch = new ArrayList<Pending>(maxBatchSize);
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(pending);
+            if (batch.size() == maxBatchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        var failures = new HashMap<Integer, WriteFailure>();
+        try {
+            failures.putAll(repository.insertUnordered(batch.stream().map(Pending::note).toList()));
+        } catch (RuntimeException e) {
+            log.error("Failed to write a group of [{}] notes", batch.size(), e);
+            batch.forEach(failed -> failed.inserted().completeExceptionally(e));
+            return;
+        }
+
+        var created = new HashMap<String, Long>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failures.containsKey(i)) {
+                created.merge(batch.get(i).note().getUsername(), 1L, Long::sum);
+            }
+        }
+        try {
+            counters.increment(created);
+        } catch (RuntimeException e) {
+            log.warn("Failed to count a group of [{}] notes, the next reconciliation will", batch.size() - failures.size(), e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            var failure = failures.get(i);
+            var inserted = batch.get(i).inserted();
+            if (failure == null) {
+                inserted.complete(batch.get(i).note());
+            } else {
+                inserted.completeExceptionally(failure.kind() == WriteFailure.Kind.DUPLICATE_KEY
+                        ? new DuplicateKeyException(failure.message())
+                        : new DataIntegrityViolationException(failure.message()));
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+public interface ReactiveNoteFacade {
+
+    Mono<SaveNoteResponse> saveNote(SaveNoteRequest request, String username);
+
+    Mono<Page<NoteDTO>> getPage(Pageable pageable, Set<NoteField> fields);
+
+    Mono<NoteSlice> scroll(String cursor, String sort, Sort.Direction direction, int size, Set<NoteField> fields);
+
+    Mono<NoteDTO> findById(String id, Set<NoteField> fields);
+
+    Mono<NoteDTO> updateNote(UpdateNoteRequest request, String username, String id);
+
+    Mono<NoteDTO> removeNote(String id, String username, boolean admin);
+
+}
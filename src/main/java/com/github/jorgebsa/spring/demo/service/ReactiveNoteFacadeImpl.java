@@ -0,0 +1,72 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@Service
+public class ReactiveNoteFacadeImpl implements ReactiveNoteFacade {
+
+    private final ReactiveNotePersistenceService persistenceService;
+    private final ReactiveNoteRetrievalService retrievalService;
+    private final ReactiveNoteRemovalService removalService;
+    private final NoteMapper mapper;
+
+    public ReactiveNoteFacadeImpl(ReactiveNotePersistenceService persistenceService, ReactiveNoteRetrievalService retrievalService, ReactiveNoteRemovalService removalService, NoteMapper mapper) {
+        this.persistenceService = persistenceService;
+        this.retrievalService = retrievalService;
+        this.removalService = removalService;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Mono<SaveNoteResponse> saveNote(SaveNoteRequest request, String username) {
+        return persistenceService.saveNote(username, request.content())
+                .map(mapper::toSaveNoteResponse);
+    }
+
+    @Override
+    public Mono<Page<NoteDTO>> getPage(Pageable pageable, Set<NoteField> fields) {
+        return retrievalService.getPage(pageable, fields)
+                .map(page -> page.map(note -> mapper.toDTO(note, fields)));
+    }
+
+    @Override
+    public Mono<NoteSlice> scroll(String cursor, String sort, Sort.Direction direction, int size, Set<NoteField> fields) {
+        return Mono.fromSupplier(() -> NoteCursor.resolve(cursor, sort, direction))
+                .flatMap(position -> retrievalService.scroll(position, size, fields))
+                .map(window -> {
+                    var content = window.notes().stream().map(note -> mapper.toDTO(note, fields)).toList();
+                    var next = window.next() == null ? null : window.next().encode();
+                    return new NoteSlice(content, next);
+                });
+    }
+
+    @Override
+    public Mono<NoteDTO> findById(String id, Set<NoteField> fields) {
+        return retrievalService.findById(id, fields)
+                .map(note -> mapper.toDTO(note, fields));
+    }
+
+    @Override
+    public Mono<NoteDTO> updateNote(UpdateNoteRequest request, String username, String id) {
+        return persistenceService.updateNote(username, request.content(), id, request.version())
+                .map(mapper::toDTO);
+    }
+
+    @Override
+    public Mono<NoteDTO> removeNote(String id, String username, boolean admin) {
+        return removalService.remove(id, username, admin)
+                .map(mapper::toDTO);
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import reactor.core.publisher.Mono;
+
+interface ReactiveNotePersistenceService {
+
+    Mono<Note> saveNote(String username, String content);
+
+    Mono<Note> updateNote(String username, String content, String id, long version);
+}
@@ -0,0 +1,60 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
+import com.github.jorgebsa.spring.demo.dao.ReactiveNoteRepository;
+import com.github.jorgebsa.spring.demo.exception.IncorrectVersionException;
+import com.github.jorgebsa.spring.demo.exception.NotSameUserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+class ReactiveNotePersistenceServiceImpl implements ReactiveNotePersistenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveNotePersistenceServiceImpl.class);
+
+    private final ReactiveNoteRepository repository;
+    private final NoteCounters counters;
+
+    ReactiveNotePersistenceServiceImpl(ReactiveNoteRepository repository, NoteCounters counters) {
+        this.repository = repository;
+        this.counters = counters;
+    }
+
+    @Override
+    public Mono<Note> saveNote(String username, String content) {
+        log.debug("User [{}] is trying to save note with content: {}", username, content);
+        return repository.insert(new Note(username, content))
+                .flatMap(saved -> counters.incrementReactively(username, 1).thenReturn(saved))
+                .doOnNext(saved -> log.info(
+                        "User [{}] created note [{}] at [{}] with version [{}]",
+                        saved.getUsername(), saved.getId(), saved.getCreatedAt(), saved.getVersion()
+                ));
+    }
+
+    @Override
+    public Mono<Note> updateNote(String username, String content, String id, long version) {
+        log.debug("User [{}] is trying to update note [{}]", username, id);
+        return repository.updateContent(id, username, version, content)
+                .doOnNext(updated -> log.info(
+                        "User [{}] updated note [{}] with content [{}] at [{}]",
+                        username, updated.getId(), updated.getContent(), updated.getLastModifiedAt()
+                ))
+                .switchIfEmpty(Mono.defer(() -> explainMissedUpdate(username, id, version)));
+    }
+
+    /*
+     * Same reasoning as the blocking service: a missing note completes
+     * empty (404), a foreign one fails with 403 and anything else is an
+     * outdated version (409).
+     */
+    private Mono<Note> explainMissedUpdate(String username, String id, long version) {
+        return repository.findOwnership(id)
+                .flatMap(note -> note.getUsername().equals(username)
+                        ? Mono.<Note>error(new IncorrectVersionException(id, username, version))
+                        : Mono.<Note>error(new NotSameUserException(note.getId(), note.getUsername(), username)))
+                .doOnSuccess(note -> log.debug("Couldn't find note by id [{}]", id));
+    }
+}
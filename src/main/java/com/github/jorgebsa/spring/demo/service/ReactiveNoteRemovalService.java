@@ -0,0 +1,9 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import reactor.core.publisher.Mono;
+
+interface ReactiveNoteRemovalService {
+
+    Mono<Note> remove(String id, String username, boolean admin);
+}
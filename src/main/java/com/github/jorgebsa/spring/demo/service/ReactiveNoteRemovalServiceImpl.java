@@ -0,0 +1,43 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
+import com.github.jorgebsa.spring.demo.dao.ReactiveNoteRepository;
+import com.github.jorgebsa.spring.demo.exception.NotSameUserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+class ReactiveNoteRemovalServiceImpl implements ReactiveNoteRemovalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveNoteRemovalServiceImpl.class);
+
+    private final ReactiveNoteRepository repository;
+    private final NoteCounters counters;
+
+    ReactiveNoteRemovalServiceImpl(ReactiveNoteRepository repository, NoteCounters counters) {
+        this.repository = repository;
+        this.counters = counters;
+    }
+
+    @Override
+    public Mono<Note> remove(String id, String username, boolean admin) {
+        log.info("User [{}] is removing note by id [{}]", username, id);
+        var removed = admin
+                ? repository.removeById(id)
+                : repository.removeByIdAndUsername(id, username);
+        return removed
+                .flatMap(note -> counters.incrementReactively(note.getUsername(), -1).thenReturn(note))
+                .doOnNext(note -> log.info("REMOVED NOTE BY ID [{}]", note.getId()))
+                .switchIfEmpty(Mono.defer(() -> explainMissedRemoval(id, username, admin)));
+    }
+
+    private Mono<Note> explainMissedRemoval(String id, String username, boolean admin) {
+        var found = admin ? Mono.<Note>empty() : repository.findOwnership(id);
+        return found
+                .flatMap(note -> Mono.<Note>error(new NotSameUserException(note.getId(), note.getUsername(), username)))
+                .doOnSuccess(note -> log.info("Could not find note by id [{}] in order to remove it", id));
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.dao.Note;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+interface ReactiveNoteRetrievalService {
+
+    Mono<Page<Note>> getPage(Pageable pageable, Set<NoteField> fields);
+
+    Mono<NoteWindow> scroll(NoteCursor position, int size, Set<NoteField> fields);
+
+    Mono<Note> findById(String id, Set<NoteField> fields);
+}
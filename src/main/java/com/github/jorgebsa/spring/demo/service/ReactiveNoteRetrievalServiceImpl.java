@@ -0,0 +1,49 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.ReactiveNoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@Service
+class ReactiveNoteRetrievalServiceImpl implements ReactiveNoteRetrievalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveNoteRetrievalServiceImpl.class);
+
+    private final ReactiveNoteRepository repository;
+
+    ReactiveNoteRetrievalServiceImpl(ReactiveNoteRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Mono<Page<Note>> getPage(Pageable pageable, Set<NoteField> fields) {
+        log.debug("Finding page of Notes with: {} and fields {}", pageable, fields);
+        return repository.findAll(pageable, NoteField.properties(fields));
+    }
+
+    @Override
+    public Mono<NoteWindow> scroll(NoteCursor position, int size, Set<NoteField> fields) {
+        log.debug("Scrolling [{}] Notes from: {}", size, position);
+        return repository.findAfter(
+                        position.key().property(), position.direction(), position.lastValue(), position.lastId(), size + 1,
+                        NoteField.properties(fields)
+                )
+                .collectList()
+                .map(notes -> NoteWindow.of(notes, size, position));
+    }
+
+    @Override
+    public Mono<Note> findById(String id, Set<NoteField> fields) {
+        log.debug("Finding note by id [{}] with fields {}", id, fields);
+        return repository.findById(id, NoteField.properties(fields));
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+enum ScrollKey {
+
+    CREATED_AT("createdAt", Note::getCreatedAt),
+    LAST_MODIFIED_AT("lastModifiedAt", Note::getLastModifiedAt);
+
+    private final String property;
+    private final Function<Note, Instant> accessor;
+
+    ScrollKey(String property, Function<Note, Instant> accessor) {
+        this.property = property;
+        this.accessor = accessor;
+    }
+
+    String property() {
+        return property;
+    }
+
+    Instant valueOf(Note note) {
+        return accessor.apply(note);
+    }
+
+    static Optional<ScrollKey> fromProperty(String property) {
+        return Stream.of(values())
+                .filter(key -> key.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,232 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Maps every trigram of the notes' content to the ordinals of the notes
+ * containing it, as compressed bitmaps. Only the first maxLength chars of
+ * a note are indexed, normalized to letters and digits, anything else
+ * becoming a space, with a leading space added, so a trigram starting
+ * with a space marks a word start. Trigrams are lower cased, while the
+ * normalized text is kept as is to serve as the snippet.
+ *
+ * A query intersects the bitmaps of its own trigrams, and checks the few
+ * candidates left against their normalized text, since trigrams alone
+ * don't tell whether they are adjacent. A prefix query keeps a leading
+ * space, so it only matches at word starts, a substring query doesn't.
+ *
+ * Not thread safe, NoteSuggestionIndex guards it.
+ */
+final class TrigramIndex {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final int POSTING_OVERHEAD_BYTES = 64;
+
+    record Entry(String id, String username, long version, String text) {
+    }
+
+    /**
+     * @param offset where the matching word starts in the note's content
+     */
+    record Match(Entry entry, int offset) {
+
+        /**
+         * The indexed text from the matching word on, punctuation aside.
+         */
+        String snippet(int length) {
+            var text = entry.text();
+            return text.substring(offset + 1, Math.min(text.length(), offset + 1 + length));
+        }
+    }
+
+    private final int maxLength;
+
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final RoaringBitmap free = new RoaringBitmap();
+
+    /**
+     * @param maxLength how many chars of each note's content to index
+     */
+    TrigramIndex(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Indexes the note, replacing what was indexed for it unless that is a more recent version.
+     */
+    void put(String id, String username, long version, String content) {
+        var ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            ordinal = allocate();
+            ordinals.put(id, ordinal);
+        } else {
+            var existing = entries.get(ordinal);
+            if (existing.version() > version) {
+                return;
+            }
+            unpost(ordinal, existing.text());
+        }
+        var text = normalize(content, maxLength, false);
+        entries.set(ordinal, new Entry(id, username, version, text));
+        post(ordinal, text);
+    }
+
+    void remove(String id) {
+        var ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        unpost(ordinal, entries.get(ordinal).text());
+        entries.set(ordinal, null);
+        free.add(ordinal);
+    }
+
+    /**
+     * Finds up to {@code limit} notes with a word starting with {@code text},
+     * or containing it anywhere if {@code substring} is set.
+     *
+     * @param username only notes of this owner, unless null
+     */
+    List<Match> find(String text, @Nullable String username, int limit, boolean substring) {
+        var normalized = normalize(text.strip(), text.length(), true);
+        var query = substring ? normalized.substring(1) : normalized;
+        var bitmaps = new ArrayList<RoaringBitmap>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            var bitmap = postings.get(trigram(query, i));
+            if (bitmap == null) {
+                return List.of();
+            }
+            bitmaps.add(bitmap);
+        }
+        if (bitmaps.isEmpty()) {
+            return List.of();
+        }
+        bitmaps.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        var candidates = FastAggregation.and(bitmaps.iterator());
+
+        var matches = new ArrayList<Match>(Math.min(limit, candidates.getCardinality()));
+        var iterator = candidates.getIntIterator();
+        while (iterator.hasNext() && matches.size() < limit) {
+            var entry = entries.get(iterator.next());
+            if (username != null && !username.equals(entry.username())) {
+                continue;
+            }
+            var found = indexOf(entry.text(), query);
+            if (found >= 0) {
+                matches.add(new Match(entry, wordStart(entry.text(), found) - 1));
+            }
+        }
+        return matches;
+    }
+
+    int size() {
+        return ordinals.size();
+    }
+
+    /**
+     * @return the version the note was indexed at, or null if it isn't indexed
+     */
+    @Nullable
+    Long versionOf(String id) {
+        var ordinal = ordinals.get(id);
+        return ordinal == null ? null : entries.get(ordinal).version();
+    }
+
+    /**
+     * A rough estimate of the heap taken by the bitmaps and the indexed text.
+     */
+    long estimateBytes() {
+        long bytes = 0;
+        for (var bitmap : postings.values()) {
+            bytes += POSTING_OVERHEAD_BYTES + bitmap.getLongSizeInBytes();
+        }
+        for (var entry : entries) {
+            if (entry != null) {
+                bytes += ENTRY_OVERHEAD_BYTES + 2L * (entry.id().length() + entry.text().length());
+            }
+        }
+        return bytes;
+    }
+
+    private int allocate() {
+        if (free.isEmpty()) {
+            entries.add(null);
+            return entries.size() - 1;
+        }
+        var ordinal = free.first();
+        free.remove(ordinal);
+        return ordinal;
+    }
+
+    private void post(int ordinal, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), key -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    private void unpost(int ordinal, String text) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            var key = trigram(text, i);
+            var bitmap = postings.get(key);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) Character.toLowerCase(text.charAt(start)) << 32)
+                | ((long) Character.toLowerCase(text.charAt(start + 1)) << 16)
+                | Character.toLowerCase(text.charAt(start + 2));
+    }
+
+    /* The query is lower case already, the text only differs from it in case */
+    private static int indexOf(String text, String query) {
+        for (int i = 0, last = text.length() - query.length(); i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /* The text starts with a space, so there always is one to stop at */
+    private static int wordStart(String text, int index) {
+        if (text.charAt(index) == ' ') {
+            return index + 1;
+        }
+        var start = index;
+        while (text.charAt(start - 1) != ' ') {
+            start--;
+        }
+        return start;
+    }
+
+    /*
+     * One char in, one char out after the leading space, so an offset in
+     * the normalized text, less one, is the offset of the same word in the
+     * original content.
+     */
+    static String normalize(String text, int maxLength, boolean lowerCase) {
+        var length = Math.min(text.length(), maxLength);
+        var normalized = new StringBuilder(length + 1).append(' ');
+        for (int i = 0; i < length; i++) {
+            var c = text.charAt(i);
+            normalized.append(!Character.isLetterOrDigit(c) ? ' ' : lowerCase ? Character.toLowerCase(c) : c);
+        }
+        return normalized.toString();
+    }
+}
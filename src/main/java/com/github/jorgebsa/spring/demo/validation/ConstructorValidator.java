@@ -0,0 +1,154 @@
+package com.github.jorgebsa.spring.demo.validation;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/*
+ * Validates the constructor arguments of a Validatable type. The constructor
+ * and its constraints are looked up once per type. When every constraint is
+ * one of the few checked here, valid arguments never reach Bean Validation;
+ * whenever a check fails, or a constraint isn't known, Bean Validation does
+ * the whole job, so violations and their messages are exactly its own.
+ */
+final class ConstructorValidator {
+
+    private static final ClassValue<ConstructorValidator> VALIDATORS = new ClassValue<>() {
+        @Override
+        protected ConstructorValidator computeValue(Class<?> type) {
+            return new ConstructorValidator(type);
+        }
+    };
+
+    private final Constructor<?> constructor;
+
+    /* One check per parameter, or null when Bean Validation must always run */
+    private final List<Predicate<Object>> checks;
+
+    private ConstructorValidator(Class<?> type) {
+        this.constructor = constructorOf(type);
+        this.checks = checksOf(constructor);
+    }
+
+    static ConstructorValidator of(Class<?> type) {
+        return VALIDATORS.get(type);
+    }
+
+    void validate(Object... args) {
+        if (passes(args)) {
+            return;
+        }
+        validateFully(args);
+    }
+
+    boolean hasFastPath() {
+        return checks != null;
+    }
+
+    private boolean passes(Object[] args) {
+        if (checks == null || args.length != checks.size()) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (!checks.get(i).test(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void validateFully(Object[] args) {
+        var validator = ValidatorProvider.getValidator();
+        Set<ConstraintViolation<?>> violations = validator.forExecutables()
+                .validateConstructorParameters((Constructor) constructor, args);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining(System.lineSeparator()));
+            throw new ConstraintViolationException(message, violations);
+        }
+    }
+
+    /*
+     * The canonical constructor for records, whatever order the compiler
+     * lists the declared constructors in.
+     */
+    private static Constructor<?> constructorOf(Class<?> type) {
+        if (type.isRecord()) {
+            var types = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new);
+            try {
+                return type.getDeclaredConstructor(types);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Record " + type.getName() + " has no canonical constructor", e);
+            }
+        }
+        return type.getDeclaredConstructors()[0];
+    }
+
+    private static List<Predicate<Object>> checksOf(Constructor<?> constructor) {
+        if (Arrays.stream(constructor.getAnnotations()).anyMatch(ConstructorValidator::isConstraint)) {
+            return null;
+        }
+        var checks = new ArrayList<Predicate<Object>>(constructor.getParameterCount());
+        for (var parameter : constructor.getParameters()) {
+            var check = checkOf(parameter);
+            if (check == null) {
+                return null;
+            }
+            checks.add(check);
+        }
+        return List.copyOf(checks);
+    }
+
+    private static Predicate<Object> checkOf(Parameter parameter) {
+        Predicate<Object> check = value -> true;
+        for (var annotation : parameter.getAnnotations()) {
+            if (annotation instanceof NotBlank) {
+                check = check.and(ConstructorValidator::isNotBlank);
+            } else if (annotation instanceof Positive && isIntegral(parameter.getType())) {
+                check = check.and(ConstructorValidator::isPositive);
+            } else if (annotation instanceof Valid || isConstraint(annotation)) {
+                return null;
+            }
+        }
+        return check;
+    }
+
+    /* Same test as Hibernate Validator's NotBlankValidator */
+    private static boolean isNotBlank(Object value) {
+        return value instanceof CharSequence chars && !chars.toString().trim().isEmpty();
+    }
+
+    private static boolean isPositive(Object value) {
+        return value == null || ((Number) value).longValue() > 0;
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == long.class || type == Long.class
+                || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class;
+    }
+
+    /* Constraint containers, such as NotBlank.List, are left to Bean Validation as well */
+    private static boolean isConstraint(Annotation annotation) {
+        var type = annotation.annotationType();
+        return type.isAnnotationPresent(Constraint.class) || type.getPackageName().startsWith("javax.validation");
+    }
+}
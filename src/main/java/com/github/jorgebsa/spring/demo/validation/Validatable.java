@@ -1,25 +1,16 @@
 package com.github.jorgebsa.spring.demo.validation;
 
-import javax.validation.ConstraintViolation;
-import javax.validation.ConstraintViolationException;
-import java.lang.reflect.Constructor;
-import java.util.Set;
-import java.util.stream.Collectors;
-
 public interface Validatable {
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
+    /**
+     * Validates the arguments given to this type's constructor against the
+     * constraints declared on its parameters. Such types need no {@code @Valid}
+     * where they are received, it would only validate them a second time.
+     *
+     * @throws javax.validation.ConstraintViolationException if any of them is violated
+     */
     default void validate(Object... args) {
-        var validator = ValidatorProvider.getValidator();
-        Constructor constructor = getClass().getDeclaredConstructors()[0];
-        Set<ConstraintViolation<?>> violations = validator.forExecutables()
-                .validateConstructorParameters(constructor, args);
-        if (!violations.isEmpty()) {
-            String message = violations.stream()
-                    .map(ConstraintViolation::getMessage)
-                    .collect(Collectors.joining(System.lineSeparator()));
-            throw new ConstraintViolationException(message, violations);
-        }
+        ConstructorValidator.of(getClass()).validate(args);
     }
 
 }
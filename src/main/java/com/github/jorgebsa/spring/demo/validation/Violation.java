@@ -2,6 +2,8 @@ package com.github.jorgebsa.spring.demo.validation;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import javax.validation.ConstraintViolationException;
+
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +19,22 @@ public record Violation(String field, String message) {
         return Map.of("field", field, "message", message);
     }
 
+    /**
+     * Converts every constraint violation into a Violation named after the
+     * last node of its property path, such as "content" or "size".
+     */
+    public static List<Violation> from(ConstraintViolationException ex) {
+        return ex.getConstraintViolations()
+                .stream()
+                .map(v -> {
+                    var path = v.getPropertyPath().toString();
+                    var idx = path.lastIndexOf('.') + 1;
+                    return new Violation(path.substring(idx), v.getMessage());
+                })
+                .sorted(COMPARATOR)
+                .toList();
+    }
+
     public static List<Map<String, String>> asMaps(List<Violation> violations) {
         if (violations == null) {
             throw new IllegalArgumentException("Violations can't be null");
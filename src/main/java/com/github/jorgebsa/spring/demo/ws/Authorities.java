@@ -0,0 +1,19 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import org.springframework.security.core.Authentication;
+
+import static com.github.jorgebsa.spring.demo.security.WebSecurityConfig.ADMIN_ROLE;
+
+final class Authorities {
+
+    private static final String ADMIN_AUTHORITY = "ROLE_" + ADMIN_ROLE;
+
+    private Authorities() {
+    }
+
+    static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities()
+                .stream()
+                .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority()));
+    }
+}
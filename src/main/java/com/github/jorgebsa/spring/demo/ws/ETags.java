@@ -0,0 +1,34 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import org.springframework.lang.Nullable;
+
+final class ETags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ETags() {
+    }
+
+    /*
+     * If-None-Match uses the weak comparison, so tags match by their opaque
+     * value whether either of them is weak or not.
+     */
+    static boolean matches(@Nullable String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        var opaque = opaque(eTag);
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = opaque(candidate.trim());
+            if (tag.equals(ANY) || tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
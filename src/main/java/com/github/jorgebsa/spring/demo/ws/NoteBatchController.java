@@ -0,0 +1,153 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.github.jorgebsa.spring.demo.base.BatchResponse;
+import com.github.jorgebsa.spring.demo.base.BatchUpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.service.NoteFacade;
+import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.security.Principal;
+import java.util.List;
+
+import static com.github.jorgebsa.spring.demo.ws.Authorities.isAdmin;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_CBOR_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_SMILE_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.OpenAPIConfig.SCHEME_NAME;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@SecurityRequirement(name = SCHEME_NAME)
+@Tag(description = "The Notes API", name = "notes")
+@RequestMapping(value = "notes/batch", produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+class NoteBatchController {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteBatchController.class);
+
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    private final NoteFacade noteFacade;
+
+    NoteBatchController(NoteFacade noteFacade) {
+        this.noteFacade = noteFacade;
+    }
+
+    @Operation(
+            summary = "Creates many Notes at once",
+            description = "Allows the requester to create many Notes in his collection with a single request. "
+                    + "All items are validated before any of them is written, and each item gets its own result",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "All Notes were created"
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Some Notes could not be created, check each item's status"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid content in at least one of the items, nothing was created",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @PostMapping(consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<BatchResponse<SaveNoteResponse>> saveNotes(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<SaveNoteRequest> requests,
+                                                                     Principal principal) {
+        var username = principal.getName();
+        log.trace("Receiving batch of [{}] save note requests from [{}]", requests.size(), username);
+        var response = noteFacade.saveNotes(requests, username);
+        return new ResponseEntity<>(response, statusOf(response, HttpStatus.CREATED));
+    }
+
+    @Operation(
+            summary = "Updates many Notes at once",
+            description = "Allows the requester to update the content of many of his Notes with a single request. "
+                    + "Each item must reference the current version of its Note, and gets its own result",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "All Notes were updated"
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Some Notes could not be updated, check each item's status"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid content in at least one of the items, nothing was updated",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @PatchMapping(consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<BatchResponse<NoteDTO>> updateNotes(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<BatchUpdateNoteRequest> requests,
+                                                              Principal principal) {
+        var username = principal.getName();
+        log.trace("Receiving batch of [{}] update note requests from [{}]", requests.size(), username);
+        var response = noteFacade.updateNotes(requests, username);
+        return new ResponseEntity<>(response, statusOf(response, HttpStatus.OK));
+    }
+
+    @Operation(
+            summary = "Deletes many Notes at once",
+            description = "Deletes every listed Note that the requester owns, or all of them if the requester is an admin. "
+                    + "Each id gets its own result",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "All Notes were deleted"
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Some Notes could not be deleted, check each item's status"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Empty or too large list of ids, nothing was deleted",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @DeleteMapping(consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<BatchResponse<NoteDTO>> removeNotes(@NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody List<String> ids,
+                                                              Authentication authentication) {
+        var username = authentication.getName();
+        log.trace("Receiving batch of [{}] remove note requests from [{}]", ids.size(), username);
+        var response = noteFacade.removeNotes(ids, username, isAdmin(authentication));
+        return new ResponseEntity<>(response, statusOf(response, HttpStatus.OK));
+    }
+
+    private static HttpStatus statusOf(BatchResponse<?> response, HttpStatus success) {
+        return response.failed() == 0 ? success : HttpStatus.MULTI_STATUS;
+    }
+}
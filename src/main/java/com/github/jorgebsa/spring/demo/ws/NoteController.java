@@ -1,12 +1,18 @@
 package com.github.jorgebsa.spring.demo.ws;
 
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.NoteSuggestion;
+import com.github.jorgebsa.spring.demo.base.PatchNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
 import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
 import com.github.jorgebsa.spring.demo.service.NoteFacade;
 import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,37 +22,57 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
 import java.security.Principal;
+import java.util.List;
 
+import static com.github.jorgebsa.spring.demo.ws.Authorities.isAdmin;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_CBOR_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_SMILE_VALUE;
 import static com.github.jorgebsa.spring.demo.ws.OpenAPIConfig.SCHEME_NAME;
+import static org.springframework.http.HttpHeaders.ACCEPT;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.ResponseEntity.ok;
 
 @Validated
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @SecurityRequirement(name = SCHEME_NAME)
 @Tag(description = "The Notes API", name = "notes")
-@RequestMapping(value = "notes", produces = APPLICATION_JSON_VALUE)
+@RequestMapping(value = "notes", produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
 class NoteController {
 
     private static final Logger log = LoggerFactory.getLogger(NoteController.class);
 
+    private static final String EXACT_DESCRIPTION = "Whether totalElements must be counted exactly. "
+            + "By default it is read from counters maintained on every write, which may briefly drift from the actual count";
+
+    private static final String FIELDS_DESCRIPTION = "Comma separated list of the fields to return, such as id,version. All fields are returned by default";
+
     private final NoteFacade noteFacade;
 
     NoteController(NoteFacade noteFacade) {
@@ -55,15 +81,123 @@ class NoteController {
 
     @Operation(
             summary = "Gets a page of Notes",
-            description = "Gets a page of Notes",
+            description = "Gets a page of Notes, tagged with an ETag that changes whenever any of its Notes or the total does",
             tags = "notes"
     )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page was retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Page still matches the ETag in If-None-Match",
+                    content = @Content
+            )
+    })
     @GetMapping
-    public ResponseEntity<Page<NoteDTO>> getPage(@ParameterObject Pageable pageable) {
-        var page = noteFacade.getPage(pageable);
+    public ResponseEntity<Page<NoteDTO>> getPage(@ParameterObject Pageable pageable,
+                                                 @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+                                                 @Parameter(description = EXACT_DESCRIPTION) @RequestParam(defaultValue = "false") boolean exact,
+                                                 @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = ACCEPT, required = false) String accept) {
+        var selected = NoteField.parse(fields);
+        var mediaType = NoteMediaTypes.negotiate(accept);
+        if (ifNoneMatch != null) {
+            var eTag = noteFacade.findPageETag(pageable, selected, exact, mediaType.toString());
+            if (ETags.matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+        }
+        var page = noteFacade.getPage(pageable, selected, exact, mediaType.toString());
+        return ok().contentType(mediaType).varyBy(ACCEPT).eTag(page.eTag()).body(page.body());
+    }
+
+    @Operation(
+            summary = "Searches Notes",
+            description = "Gets a page of the Notes whose content matches the query, most relevant first, along with their relevance score. "
+                    + "The query follows MongoDB's text search syntax, so words are stemmed, \"quoted phrases\" must match exactly "
+                    + "and -prefixed words exclude notes. Only the beginning of very large Notes is searched",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of matches was retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid query or fields",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @GetMapping("search")
+    public ResponseEntity<Page<NoteSearchResult>> search(@NotBlank @Size(max = 256) @RequestParam String q,
+                                                         @Parameter(description = "Whether to search the requester's Notes only") @RequestParam(defaultValue = "false") boolean mine,
+                                                         @ParameterObject Pageable pageable,
+                                                         @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+                                                         Principal principal) {
+        var username = mine ? principal.getName() : null;
+        var page = noteFacade.search(q, username, pageable, NoteField.parse(fields));
         return ok(page);
     }
 
+    @Operation(
+            summary = "Suggests Notes",
+            description = "Gets the Notes with a word starting with the prefix, or containing it anywhere when asked to, for type-ahead. "
+                    + "Matching ignores case and punctuation, only looks at the start of each Note, "
+                    + "and each suggestion carries the content from the matching word on. "
+                    + "Notes created by other instances are only suggested after the next periodic rebuild of the index",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Suggestions were retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Prefix is shorter than 3 characters, or invalid limit",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @GetMapping("suggest")
+    public ResponseEntity<List<NoteSuggestion>> suggest(@Size(min = 3, max = 64) @RequestParam String prefix,
+                                                        @Parameter(description = "Whether to suggest the requester's Notes only") @RequestParam(defaultValue = "false") boolean mine,
+                                                        @Parameter(description = "Whether the prefix may match anywhere in a word, rather than at its start") @RequestParam(defaultValue = "false") boolean substring,
+                                                        @Min(1) @Max(50) @RequestParam(defaultValue = "10") int limit,
+                                                        Principal principal) {
+        var username = mine ? principal.getName() : null;
+        return ok(noteFacade.suggest(prefix, username, limit, substring));
+    }
+
+    @Operation(
+            summary = "Scrolls through Notes",
+            description = "Gets a slice of Notes after the given cursor, ordered by an indexed key. "
+                    + "Unlike pages, slices don't carry totals and don't get slower as the scroll goes deeper",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Slice was retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor, sort, size or fields",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @GetMapping("scroll")
+    public ResponseEntity<NoteSlice> scroll(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "createdAt") String sort,
+                                            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                            @Min(1) @Max(100) @RequestParam(defaultValue = "20") int size,
+                                            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields) {
+        var slice = noteFacade.scroll(cursor, sort, direction, size, NoteField.parse(fields));
+        return ok(slice);
+    }
+
     @Operation(
             summary = "Creates a new Note",
             description = "Allows the requester to create a new Note in his collection",
@@ -80,8 +214,8 @@ class NoteController {
                     content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
             )
     })
-    @PostMapping(consumes = APPLICATION_JSON_VALUE)
-    public ResponseEntity<SaveNoteResponse> saveNote(@Valid @RequestBody SaveNoteRequest request, Principal principal) {
+    @PostMapping(consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<SaveNoteResponse> saveNote(@RequestBody SaveNoteRequest request, Principal principal) {
         var username = principal.getName();
         log.trace("Receiving save note request from [{}]", username);
         var response = noteFacade.saveNote(request, username);
@@ -90,7 +224,7 @@ class NoteController {
 
     @Operation(
             summary = "Find Note by ID",
-            description = "Returns a single Note if it's found",
+            description = "Returns a single Note if it's found, tagged with an ETag derived from its id and version",
             tags = "notes"
     )
     @ApiResponses(value = {
@@ -98,9 +232,14 @@ class NoteController {
                     responseCode = "200",
                     description = "Note was retrieved"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Note still matches the ETag in If-None-Match",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Invalid ID",
+                    description = "Invalid ID or fields",
                     content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
             ),
             @ApiResponse(
@@ -110,9 +249,30 @@ class NoteController {
             )
     })
     @GetMapping("{id}")
-    public ResponseEntity<NoteDTO> findNote(@NotBlank @PathVariable String id) {
-        var found = noteFacade.findById(id);
-        return ResponseEntity.of(found);
+    public ResponseEntity<NoteDTO> findNote(@NotBlank @PathVariable String id,
+                                            @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields,
+                                            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            @RequestHeader(value = ACCEPT, required = false) String accept) {
+        var selected = NoteField.parse(fields);
+        var mediaType = NoteMediaTypes.negotiate(accept);
+        /*
+         * Polling clients mostly hold the current version already, which a
+         * lookup of the version alone is enough to confirm.
+         */
+        if (ifNoneMatch != null) {
+            var eTag = noteFacade.findETag(id, selected, mediaType.toString());
+            if (eTag.isPresent() && ETags.matches(ifNoneMatch, eTag.get())) {
+                return notModified(eTag.get());
+            }
+        }
+        var found = noteFacade.findById(id, selected, mediaType.toString());
+        return found.map(note -> ok().contentType(mediaType).varyBy(ACCEPT).eTag(note.eTag()).body(note.body()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /* The tag depends on the negotiated media type, so shared caches must key on Accept too */
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(ACCEPT).eTag(eTag).build();
     }
 
     @Operation(
@@ -146,17 +306,58 @@ class NoteController {
                     content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
             )
     })
-    @PutMapping(value = "{id}", consumes = APPLICATION_JSON_VALUE)
-    public ResponseEntity<NoteDTO> updateNote(@Valid @RequestBody UpdateNoteRequest request, @NotBlank @PathVariable String id, Principal principal) {
+    @PutMapping(value = "{id}", consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<NoteDTO> updateNote(@RequestBody UpdateNoteRequest request, @NotBlank @PathVariable String id, Principal principal) {
         var username = principal.getName();
         log.trace("Receiving update note request from [{}]", username);
         var updated = noteFacade.updateNote(request, username, id);
         return ResponseEntity.of(updated);
     }
 
+    @Operation(
+            summary = "Edits the content of an existing Note",
+            description = "Appends, prepends or replaces ranges of an existing Note's content if the requester is the Note's owner. "
+                    + "Operations are applied in order, and all at once, without sending the whole content. "
+                    + "Ranges count code points and stop at the end of the content",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Note was edited"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid operations",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Requester is not the note's owner",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Note not found",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Note's version is outdated",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @PatchMapping(value = "{id}", consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<NoteDTO> patchNote(@RequestBody PatchNoteRequest request, @NotBlank @PathVariable String id, Principal principal) {
+        var username = principal.getName();
+        log.trace("Receiving patch note request from [{}] with [{}] operations", username, request.operations().size());
+        var patched = noteFacade.patchNote(request, username, id);
+        return ResponseEntity.of(patched);
+    }
+
     @Operation(
             summary = "Deletes an existing Note",
-            description = "Deletes an existing Note if it's found",
+            description = "Deletes an existing Note if the requester is the Note's owner or an admin",
             tags = "notes"
     )
     @ApiResponses(value = {
@@ -169,6 +370,11 @@ class NoteController {
                     description = "Invalid ID",
                     content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
             ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Requester is neither the note's owner nor an admin",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Note not found",
@@ -176,8 +382,10 @@ class NoteController {
             )
     })
     @DeleteMapping("{id}")
-    public ResponseEntity<NoteDTO> removeNote(@NotBlank @PathVariable String id) {
-        var removed = noteFacade.removeNote(id);
+    public ResponseEntity<NoteDTO> removeNote(@NotBlank @PathVariable String id, Authentication authentication) {
+        var username = authentication.getName();
+        log.trace("Receiving remove note request from [{}]", username);
+        var removed = noteFacade.removeNote(id, username, isAdmin(authentication));
         return ResponseEntity.of(removed);
     }
 }
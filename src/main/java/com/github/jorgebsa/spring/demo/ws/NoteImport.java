@@ -0,0 +1,168 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.jorgebsa.spring.demo.base.ImportError;
+import com.github.jorgebsa.spring.demo.base.ImportSummary;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.service.NoteFacade;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+
+import javax.validation.ConstraintViolationException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+
+/*
+ * A single NDJSON import. Lines are read and parsed one at a time, and
+ * valid ones are buffered until a batch is full. Each batch is flushed
+ * synchronously, so nothing more is read from the client while Mongo is
+ * busy and the upload is slowed down by TCP itself. Memory only ever holds
+ * one batch, one line and the first few errors. A line longer than the
+ * limit is skipped as it is read, rather than held whole, and reported.
+ */
+class NoteImport {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final NoteFacade noteFacade;
+    private final ObjectReader reader;
+    private final String username;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final int maxLineLength;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean lineTooLong;
+
+    private final List<SaveNoteRequest> batch;
+    private final List<Long> batchLines;
+    private final List<ImportError> errors = new ArrayList<>();
+
+    private long lines;
+    private long imported;
+    private long failed;
+
+    NoteImport(NoteFacade noteFacade, ObjectReader reader, String username, int batchSize, int maxReportedErrors, int maxLineLength) {
+        this.noteFacade = noteFacade;
+        this.reader = reader;
+        this.username = username;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = maxLineLength;
+        this.batch = new ArrayList<>(batchSize);
+        this.batchLines = new ArrayList<>(batchSize);
+    }
+
+    ImportSummary run(Reader in) throws IOException {
+        String line;
+        while ((line = readLine(in)) != null) {
+            lines++;
+            if (lineTooLong) {
+                fail(lines, PAYLOAD_TOO_LARGE.value(), List.of(new Violation("line", "longer than " + maxLineLength + " characters")));
+            } else if (!line.isBlank()) {
+                accept(line);
+            }
+        }
+        flush();
+        return new ImportSummary(lines, imported, failed, List.copyOf(errors), failed > errors.size());
+    }
+
+    /*
+     * Reads up to the next line feed, dropping a carriage return before it,
+     * the way BufferedReader does for NDJSON, except that a line is only
+     * kept while it fits within the limit.
+     */
+    private String readLine(Reader in) throws IOException {
+        lineBuffer.setLength(0);
+        lineTooLong = false;
+        while (true) {
+            if (position == limit) {
+                position = 0;
+                limit = Math.max(in.read(buffer), 0);
+                if (limit == 0) {
+                    return lineBuffer.length() > 0 || lineTooLong ? endLine() : null;
+                }
+            }
+            var start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            append(start, position);
+            if (position < limit) {
+                position++;
+                return endLine();
+            }
+        }
+    }
+
+    private void append(int start, int end) {
+        if (lineTooLong) {
+            return;
+        }
+        if (lineBuffer.length() + end - start > maxLineLength) {
+            lineTooLong = true;
+            lineBuffer.setLength(0);
+            return;
+        }
+        lineBuffer.append(buffer, start, end - start);
+    }
+
+    private String endLine() {
+        if (lineBuffer.length() > 0 && lineBuffer.charAt(lineBuffer.length() - 1) == '\r') {
+            lineBuffer.setLength(lineBuffer.length() - 1);
+        }
+        return lineBuffer.toString();
+    }
+
+    private void accept(String line) {
+        try {
+            batch.add(reader.readValue(line));
+            batchLines.add(lines);
+        } catch (JsonProcessingException e) {
+            fail(lines, BAD_REQUEST.value(), violationsOf(e));
+            return;
+        }
+        if (batch.size() == batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        var response = noteFacade.saveNotes(batch, username);
+        imported += response.succeeded();
+        for (var item : response.items()) {
+            if (!item.isSuccess()) {
+                fail(batchLines.get(item.index()), item.status(), item.errors());
+            }
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    private void fail(long line, int status, List<Violation> violations) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new ImportError(line, status, violations));
+        }
+    }
+
+    private static List<Violation> violationsOf(JsonProcessingException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return Violation.from(violation);
+            }
+        }
+        return List.of(new Violation("line", "malformed JSON: " + e.getOriginalMessage()));
+    }
+}
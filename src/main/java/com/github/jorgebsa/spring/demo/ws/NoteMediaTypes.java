@@ -0,0 +1,58 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/*
+ * Besides JSON, notes can be exchanged as Smile or CBOR, binary encodings
+ * of the same data model that are smaller and cheaper to parse. They are
+ * meant for service to service callers, browsers keep getting JSON.
+ */
+final class NoteMediaTypes {
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+
+    /* In the order Spring prefers them when the client accepts several equally */
+    private static final List<MediaType> PRODUCIBLE = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.parseMediaType(APPLICATION_SMILE_VALUE),
+            MediaType.APPLICATION_CBOR
+    );
+
+    private NoteMediaTypes() {
+    }
+
+    /**
+     * Picks the media type a response will be sent as, ahead of the message
+     * converters, the way Spring MVC would pick it from the Accept header.
+     * Anything that can't be served falls back to JSON and is left for
+     * Spring to reject.
+     */
+    static MediaType negotiate(@Nullable String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (var candidate : acceptable) {
+            if (candidate.getQualityValue() == 0) {
+                continue;
+            }
+            for (var producible : PRODUCIBLE) {
+                if (candidate.isCompatibleWith(producible)) {
+                    return producible;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,187 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.jorgebsa.spring.demo.base.ImportSummary;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.service.NoteFacade;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_CBOR_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_SMILE_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.OpenAPIConfig.SCHEME_NAME;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@SecurityRequirement(name = SCHEME_NAME)
+@Tag(description = "The Notes API", name = "notes")
+@RequestMapping("notes")
+class NoteTransferController {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteTransferController.class);
+
+    private static final String GZIP = "gzip";
+    private static final int FLUSH_EVERY = 500;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final NoteFacade noteFacade;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final int importBatchSize;
+    private final int maxReportedErrors;
+    private final int maxImportLineLength;
+
+    NoteTransferController(NoteFacade noteFacade,
+                           ObjectMapper objectMapper,
+                           @Value("${notes.import.batch-size:500}") int importBatchSize,
+                           @Value("${notes.import.max-reported-errors:100}") int maxReportedErrors,
+                           @Value("${notes.import.max-line-length:1048576}") int maxImportLineLength) {
+        this.noteFacade = noteFacade;
+        this.writer = objectMapper.writerFor(NoteDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.reader = objectMapper.readerFor(SaveNoteRequest.class);
+        this.importBatchSize = importBatchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxImportLineLength = maxImportLineLength;
+    }
+
+    @Operation(
+            summary = "Exports Notes as NDJSON",
+            description = "Streams every matching Note as one JSON document per line, straight from the database. "
+                    + "The response is gzipped when the client accepts it",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Notes are being streamed"
+            )
+    })
+    @GetMapping(value = "export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@Parameter(description = "Only export Notes of this owner") @RequestParam(required = false) String owner,
+                                                        @Parameter(description = "Only export Notes modified at or after this epoch millisecond") @RequestParam(required = false) Long modifiedSince,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        var gzip = acceptsGzip(acceptEncoding);
+        log.trace("Receiving export request for owner [{}] modified since [{}], gzip [{}]", owner, modifiedSince, gzip);
+        StreamingResponseBody body = out -> {
+            try (var notes = noteFacade.export(owner, modifiedSince)) {
+                write(notes, gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out);
+            }
+        };
+        var response = ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(body);
+    }
+
+    @Operation(
+            summary = "Imports Notes from NDJSON",
+            description = "Creates a Note in the requester's collection for every line of the body, each holding a JSON "
+                    + "document such as {\"content\": \"...\"}. The body is read as it arrives, so uploads can be arbitrarily "
+                    + "large, and may be gzipped. Invalid lines, and lines longer than the limit, are reported without stopping the import",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "All lines were imported"
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "Some lines could not be imported, check the reported errors"
+            )
+    })
+    @PostMapping(value = "import", consumes = APPLICATION_NDJSON_VALUE, produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public ResponseEntity<ImportSummary> importNotes(InputStream body,
+                                                     @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                     Principal principal) throws IOException {
+        var username = principal.getName();
+        log.trace("Receiving import request from [{}]", username);
+        var in = GZIP.equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, BUFFER_SIZE) : body;
+        var lines = new InputStreamReader(in, StandardCharsets.UTF_8);
+        var summary = new NoteImport(noteFacade, reader, username, importBatchSize, maxReportedErrors, maxImportLineLength).run(lines);
+        log.info("User [{}] imported [{}] of [{}] lines", username, summary.imported(), summary.lines());
+        var status = summary.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return new ResponseEntity<>(summary, status);
+    }
+
+    /*
+     * A client that goes away mid-export only surfaces as an IOException
+     * on the next write. That is an expected end of the export rather than
+     * an error, and closing the stream releases the Mongo cursor either way.
+     */
+    private void write(Stream<NoteDTO> notes, OutputStream out) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            for (var iterator = notes.iterator(); iterator.hasNext(); ) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+            if (out instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            log.debug("Exported [{}] notes", written);
+        } catch (IOException e) {
+            log.info("Client went away after [{}] exported notes: {}", written, e.getMessage());
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (var coding : acceptEncoding.split(",")) {
+            var parts = coding.split(";");
+            if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
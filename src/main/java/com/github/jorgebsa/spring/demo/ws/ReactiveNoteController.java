@@ -0,0 +1,240 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteField;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.service.ReactiveNoteFacade;
+import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdoc.api.annotations.ParameterObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import java.security.Principal;
+
+import static com.github.jorgebsa.spring.demo.ws.Authorities.isAdmin;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_CBOR_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_SMILE_VALUE;
+import static com.github.jorgebsa.spring.demo.ws.OpenAPIConfig.SCHEME_NAME;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/*
+ * Serves the same contract as NoteController when the application runs
+ * on the reactive stack, see the "reactive" profile.
+ */
+@Validated
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@SecurityRequirement(name = SCHEME_NAME)
+@Tag(description = "The Notes API", name = "notes")
+@RequestMapping(value = "notes", produces = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+class ReactiveNoteController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveNoteController.class);
+
+    private static final String FIELDS_DESCRIPTION = "Comma separated list of the fields to return, such as id,version. All fields are returned by default";
+
+    private final ReactiveNoteFacade noteFacade;
+
+    ReactiveNoteController(ReactiveNoteFacade noteFacade) {
+        this.noteFacade = noteFacade;
+    }
+
+    @Operation(
+            summary = "Gets a page of Notes",
+            description = "Gets a page of Notes",
+            tags = "notes"
+    )
+    @GetMapping
+    public Mono<ResponseEntity<Page<NoteDTO>>> getPage(@ParameterObject Pageable pageable,
+                                                       @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields) {
+        return noteFacade.getPage(pageable, NoteField.parse(fields))
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Scrolls through Notes",
+            description = "Gets a slice of Notes after the given cursor, ordered by an indexed key. "
+                    + "Unlike pages, slices don't carry totals and don't get slower as the scroll goes deeper",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Slice was retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor, sort, size or fields",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @GetMapping("scroll")
+    public Mono<ResponseEntity<NoteSlice>> scroll(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "createdAt") String sort,
+                                                  @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                  @Min(1) @Max(100) @RequestParam(defaultValue = "20") int size,
+                                                  @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields) {
+        return noteFacade.scroll(cursor, sort, direction, size, NoteField.parse(fields))
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Creates a new Note",
+            description = "Allows the requester to create a new Note in his collection",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Note was created"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid content",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @PostMapping(consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<SaveNoteResponse>> saveNote(@RequestBody SaveNoteRequest request, Principal principal) {
+        var username = principal.getName();
+        log.trace("Receiving save note request from [{}]", username);
+        return noteFacade.saveNote(request, username)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    @Operation(
+            summary = "Find Note by ID",
+            description = "Returns a single Note if it's found",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Note was retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid ID or fields",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Note was not found",
+                    content = @Content
+            )
+    })
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<NoteDTO>> findNote(@NotBlank @PathVariable String id,
+                                                  @Parameter(description = FIELDS_DESCRIPTION) @RequestParam(required = false) String fields) {
+        return noteFacade.findById(id, NoteField.parse(fields))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+            summary = "Updates an existing Note",
+            description = "Updates an existing Note if the requester is the Note's owner",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Note was updated"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid content",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Requester is not the note's owner",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Note not found",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Note's version is outdated",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            )
+    })
+    @PutMapping(value = "{id}", consumes = {APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<NoteDTO>> updateNote(@RequestBody UpdateNoteRequest request, @NotBlank @PathVariable String id, Principal principal) {
+        var username = principal.getName();
+        log.trace("Receiving update note request from [{}]", username);
+        return noteFacade.updateNote(request, username, id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(
+            summary = "Deletes an existing Note",
+            description = "Deletes an existing Note if the requester is the Note's owner or an admin",
+            tags = "notes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Note was deleted"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid ID",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Requester is neither the note's owner nor an admin",
+                    content = @Content(mediaType = APPLICATION_JSON_VALUE, schema = @Schema(implementation = ErrorMessage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Note not found",
+                    content = @Content
+            )
+    })
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<NoteDTO>> removeNote(@NotBlank @PathVariable String id, Authentication authentication) {
+        var username = authentication.getName();
+        log.trace("Receiving remove note request from [{}]", username);
+        return noteFacade.removeNote(id, username, isAdmin(authentication))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
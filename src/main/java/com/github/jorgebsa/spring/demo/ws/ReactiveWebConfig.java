@@ -0,0 +1,53 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/*
+ * Spring Boot only registers the Pageable and Sort resolvers for servlet
+ * applications, so the reactive controller needs them added by hand.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+class ReactiveWebConfig implements WebFluxConfigurer {
+
+    /* A prototype, so every call hands out a fresh builder */
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    ReactiveWebConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactiveSortHandlerMethodArgumentResolver(), new ReactivePageableHandlerMethodArgumentResolver());
+    }
+
+    /*
+     * Unlike Spring MVC, WebFlux registers no Smile or CBOR codecs by
+     * default, and CBOR only has an encoder for single values.
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        var smile = builders.getObject().factory(new SmileFactory()).build();
+        var cbor = builders.getObject().factory(new CBORFactory()).build();
+        var codecs = configurer.customCodecs();
+        codecs.register(new Jackson2SmileEncoder(smile));
+        codecs.register(new Jackson2SmileDecoder(smile));
+        codecs.register(new Jackson2CborEncoder(cbor));
+        codecs.register(new Jackson2CborDecoder(cbor));
+    }
+}
@@ -3,12 +3,14 @@ package com.github.jorgebsa.spring.demo;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.dao.Note;
 import com.github.jorgebsa.spring.demo.util.ExtendedKeycloakContainer;
 import com.github.jorgebsa.spring.demo.util.ExtendedMongoDBContainer;
 import com.github.jorgebsa.spring.demo.util.ResultPage;
 import com.github.jorgebsa.spring.demo.util.UserData;
 import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
 import dasniko.testcontainers.keycloak.KeycloakContainer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 import org.keycloak.admin.client.KeycloakBuilder;
@@ -16,6 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexField;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -25,6 +29,7 @@ import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -36,6 +41,7 @@ import static com.github.jorgebsa.spring.demo.util.ExtendedKeycloakContainer.CLI
 import static com.github.jorgebsa.spring.demo.util.ExtendedKeycloakContainer.CLIENT_SECRET;
 import static com.github.jorgebsa.spring.demo.util.ExtendedKeycloakContainer.REALM;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
@@ -68,6 +74,14 @@ public abstract class ApplicationTests {
     void contextLoads() {
     }
 
+    /* Indexes are built in the background once the application is ready, and text searches fail without theirs */
+    @BeforeEach
+    void awaitIndexes(@Autowired MongoOperations operations) {
+        await().atMost(Duration.ofSeconds(30)).until(() -> operations.indexOps(Note.class).getIndexInfo()
+                .stream()
+                .anyMatch(index -> index.getIndexFields().stream().anyMatch(IndexField::isText)));
+    }
+
     protected static Stream<Arguments> userDataSource() {
         return Stream.of(
                 arguments(UserData.ADMIN),
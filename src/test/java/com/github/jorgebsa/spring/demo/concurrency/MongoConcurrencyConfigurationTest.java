@@ -0,0 +1,29 @@
+package com.github.jorgebsa.spring.demo.concurrency;
+
+import com.mongodb.MongoClientSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class MongoConcurrencyConfigurationTest {
+
+    @Test
+    void limitsTheDriverPool() {
+        var builder = MongoClientSettings.builder();
+        new MongoConcurrencyConfiguration().mongoConcurrencyLimitCustomizer(2, Duration.ofMillis(50)).customize(builder);
+        var pool = builder.build().getConnectionPoolSettings();
+
+        assertAll(
+                () -> assertThat(pool.getMaxSize())
+                        .as("No more operations than the cap should get a connection at once")
+                        .isEqualTo(2),
+                () -> assertThat(pool.getMaxWaitTime(MILLISECONDS))
+                        .as("Operations should wait for a connection no longer than the acquire timeout")
+                        .isEqualTo(50)
+        );
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.http.HttpEntity;
+
+import java.time.Duration;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/*
+ * The test profile enables the change stream, and the Mongo container runs
+ * as a single node replica set, so these writes are seen the way another
+ * instance's would.
+ */
+class NoteChangeStreamListenerTest extends ApplicationTests {
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Autowired
+    private NoteChangeStreamListener listener;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void directUpdateEvictsCachedNote() {
+        var saved = factory.insert(SOME_USER.username(), "content before");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+        template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+
+        notes().updateOne(
+                Filters.eq("_id", new ObjectId(saved.getId())),
+                Updates.combine(Updates.set("content", "content after"), Updates.inc("version", 1L))
+        );
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId()).getBody())
+                        .as("Read after a direct update should eventually see it")
+                        .extracting(NoteDTO::content, NoteDTO::version)
+                        .containsExactly("content after", 2L)
+        );
+    }
+
+    @Test
+    void directRemovalEvictsCachedNote() {
+        var saved = factory.insert(SOME_USER.username(), "soon gone");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+        template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+
+        notes().deleteOne(Filters.eq("_id", new ObjectId(saved.getId())));
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(template.exchange("/notes/{id}", GET, entity, String.class, saved.getId()).getStatusCode())
+                        .as("Read after a direct removal should eventually not find the note")
+                        .isEqualTo(NOT_FOUND)
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {286, 280})
+    void unresumableStreamFlushesCaches(int errorCode) {
+        var saved = factory.insert(SOME_USER.username(), "content before");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+        template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+
+        /* Without a new version the stream ignores the write, like any change it missed */
+        notes().updateOne(Filters.eq("_id", new ObjectId(saved.getId())), Updates.set("content", "missed content"));
+        var stale = template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId()).getBody();
+
+        var flushed = listener.flushIfUnresumable(failure(errorCode));
+        var fresh = template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId()).getBody();
+
+        assertAll(
+                () -> assertThat(stale.content())
+                        .as("The missed write should not have evicted the note")
+                        .isEqualTo("content before"),
+                () -> assertThat(flushed).isTrue(),
+                () -> assertThat(fresh.content())
+                        .as("Read after the flush should see what the stream missed")
+                        .isEqualTo("missed content")
+        );
+    }
+
+    @Test
+    void otherStreamFailuresAreRetried() {
+        assertThat(listener.flushIfUnresumable(failure(6)))
+                .as("Errors the stream can resume from should not flush caches")
+                .isFalse();
+    }
+
+    private static MongoCommandException failure(int errorCode) {
+        var response = new BsonDocument("ok", new BsonDouble(0))
+                .append("code", new BsonInt32(errorCode))
+                .append("errmsg", new BsonString("change stream failed"));
+        return new MongoCommandException(response, new ServerAddress());
+    }
+
+    private MongoCollection<Document> notes() {
+        return operations.getCollection(operations.getCollectionName(Note.class));
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.ResultPage;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.http.HttpEntity;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpMethod.PUT;
+
+class NoteContentCompressionTest extends ApplicationTests {
+
+    private static final String LARGE_CONTENT = "2022-01-01 12:00:00 INFO a rather repetitive log line\n".repeat(100);
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Autowired
+    private NoteContentMigration migration;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void largeContentIsStoredCompressed() {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var saved = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest(LARGE_CONTENT), headers), SaveNoteResponse.class).getBody();
+        var stored = raw(saved.id());
+        var found = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), NoteDTO.class, saved.id()).getBody();
+
+        assertAll(
+                () -> assertThat(stored.get("content"))
+                        .as("Large content should be stored as compressed bytes")
+                        .isInstanceOfSatisfying(Binary.class, binary -> assertThat(binary.length()).isLessThan(LARGE_CONTENT.length())),
+                () -> assertThat(stored.getString("contentCodec")).isEqualTo("deflate"),
+                () -> assertThat(found.content())
+                        .as("Content should be read back decompressed")
+                        .isEqualTo(LARGE_CONTENT)
+        );
+    }
+
+    @Test
+    void largeContentIsSearchable() throws JsonProcessingException {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var saved = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest(LARGE_CONTENT), headers), SaveNoteResponse.class).getBody();
+        var stored = raw(saved.id());
+        var response = template.exchange("/notes/search?q={q}&fields={f}", GET, new HttpEntity<Void>(headers), String.class, "repetitive", "id");
+        var found = objectMapper.readValue(response.getBody(), new TypeReference<ResultPage<NoteSearchResult>>() {
+        });
+
+        assertAll(
+                () -> assertThat(stored.getString("searchText"))
+                        .as("Compressed content should keep a plain copy for the text index")
+                        .isEqualTo(LARGE_CONTENT),
+                () -> assertThat(found.content())
+                        .extracting(result -> result.note().id())
+                        .as("Compressed content should be found by text searches")
+                        .containsExactly(saved.id())
+        );
+    }
+
+    @Test
+    void smallContentIsStoredPlain() {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var saved = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest(LARGE_CONTENT), headers), SaveNoteResponse.class).getBody();
+
+        var update = new UpdateNoteRequest("short again", saved.version());
+        var updated = template.exchange("/notes/{id}", PUT, new HttpEntity<>(update, headers), NoteDTO.class, saved.id()).getBody();
+        var stored = raw(saved.id());
+
+        assertAll(
+                () -> assertThat(updated.content()).isEqualTo("short again"),
+                () -> assertThat(stored.get("content"))
+                        .as("Content below the threshold should be stored as is")
+                        .isEqualTo("short again"),
+                () -> assertThat(stored)
+                        .as("Plain content should not carry a codec, nor a copy for the text index")
+                        .doesNotContainKeys("contentCodec", "searchText")
+        );
+    }
+
+    @Test
+    void existingContentIsMigrated() {
+        var id = new ObjectId();
+        var now = Date.from(Instant.now());
+        collection().insertOne(new Document("_id", id)
+                .append("username", SOME_USER.username())
+                .append("content", LARGE_CONTENT)
+                .append("createdAt", now)
+                .append("lastModifiedAt", now)
+                .append("version", 3L));
+
+        var migrated = migration.migrate();
+        var stored = raw(id.toHexString());
+        var found = factory.findById(id.toHexString()).orElseThrow();
+
+        assertAll(
+                () -> assertThat(migrated).isEqualTo(1),
+                () -> assertThat(stored.get("content")).isInstanceOf(Binary.class),
+                () -> assertThat(stored.getString("searchText"))
+                        .as("Migrated content should stay searchable")
+                        .isEqualTo(LARGE_CONTENT),
+                () -> assertThat(found.getContent())
+                        .as("Migrated content should read the same")
+                        .isEqualTo(LARGE_CONTENT),
+                () -> assertThat(found.getVersion())
+                        .as("Migration should not change the version")
+                        .isEqualTo(3L)
+        );
+    }
+
+    private Document raw(String id) {
+        return collection().find(Filters.eq("_id", new ObjectId(id))).first();
+    }
+
+    private MongoCollection<Document> collection() {
+        return operations.getCollection(operations.getCollectionName(Note.class));
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class NoteIndexManagerTest extends ApplicationTests {
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Autowired
+    private NoteIndexManager indexManager;
+
+    @Test
+    void requiredIndexesAreCreatedOnStartup() {
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            var existing = operations.indexOps(Note.class).getIndexInfo()
+                    .stream()
+                    .map(IndexInfo::getName)
+                    .toList();
+
+            assertThat(existing)
+                    .as("Indexes declared on Note should be created in the background")
+                    .contains("username_lastModifiedAt_id", "lastModifiedAt_id", "createdAt_id");
+        });
+    }
+
+    @Test
+    void ensuringIndexesIsIdempotent() {
+        indexManager.ensureIndexes();
+        var before = operations.indexOps(Note.class).getIndexInfo();
+        indexManager.ensureIndexes();
+        var after = operations.indexOps(Note.class).getIndexInfo();
+
+        assertThat(after)
+                .as("Ensuring the same indexes again should not change them")
+                .hasSameSizeAs(before);
+    }
+}
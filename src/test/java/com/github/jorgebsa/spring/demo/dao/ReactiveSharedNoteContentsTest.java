@@ -0,0 +1,96 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.http.HttpEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.OK;
+
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = {
+        "spring.main.web-application-type=reactive",
+        "notes.dedup.enabled=true", "notes.dedup.threshold=256B", "notes.dedup.grace-period=0s"
+})
+class ReactiveSharedNoteContentsTest extends ApplicationTests {
+
+    private static final String TEMPLATE = "## Meeting notes\n\n### Attendees\n\n- \n\n### Agenda\n\n1. \n\n### Action items\n\n- [ ] \n".repeat(4);
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+        operations.dropCollection(SharedNoteContents.COLLECTION);
+    }
+
+    @Test
+    void sharedContentIsRead() throws Exception {
+        var hash = new Binary(MessageDigest.getInstance("SHA-256").digest(TEMPLATE.getBytes(StandardCharsets.UTF_8)));
+        operations.getCollection(SharedNoteContents.COLLECTION).insertOne(new Document("_id", hash)
+                .append("content", TEMPLATE)
+                .append("refCount", 1L)
+                .append("referencedAt", new Date()));
+        var id = new ObjectId();
+        var now = new Date();
+        notes().insertOne(new Document("_id", id)
+                .append("username", SOME_USER.username())
+                .append("createdAt", now)
+                .append("lastModifiedAt", now)
+                .append("version", 1L)
+                .append("content", hash)
+                .append("contentCodec", "sha256"));
+
+        var found = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(getAuthorizationHeader(SOME_USER)), NoteDTO.class, id.toHexString());
+
+        assertAll(
+                () -> assertThat(found.getStatusCode()).isEqualTo(OK),
+                () -> assertThat(found.getBody().content())
+                        .as("Content shared by other instances should be resolved")
+                        .isEqualTo(TEMPLATE)
+        );
+    }
+
+    @Test
+    void contentIsNotShared() {
+        var saved = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest(TEMPLATE), getAuthorizationHeader(SOME_USER)), SaveNoteResponse.class);
+        var stored = notes().find(Filters.eq("_id", new ObjectId(saved.getBody().id()))).first();
+
+        assertAll(
+                () -> assertThat(stored.get("content"))
+                        .as("The reactive stack should store content in the note itself")
+                        .isEqualTo(TEMPLATE),
+                () -> assertThat(operations.getCollection(SharedNoteContents.COLLECTION).countDocuments()).isZero()
+        );
+    }
+
+    private MongoCollection<Document> notes() {
+        return operations.getCollection(operations.getCollectionName(Note.class));
+    }
+}
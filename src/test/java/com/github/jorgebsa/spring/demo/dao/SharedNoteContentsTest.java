@@ -0,0 +1,188 @@
+package com.github.jorgebsa.spring.demo.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.ResultPage;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.http.HttpEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.ADMIN;
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpMethod.PUT;
+
+@TestPropertySource(properties = {"notes.dedup.enabled=true", "notes.dedup.threshold=256B", "notes.dedup.grace-period=0s"})
+class SharedNoteContentsTest extends ApplicationTests {
+
+    private static final String TEMPLATE = "## Meeting notes\n\n### Attendees\n\n- \n\n### Agenda\n\n1. \n\n### Action items\n\n- [ ] \n".repeat(4);
+    private static final String LARGE_TEMPLATE = "| date | owner | status | comments |\n|------|-------|--------|----------|\n".repeat(40);
+
+    @Autowired
+    private MongoOperations operations;
+
+    @Autowired
+    private SharedNoteContents shared;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+        operations.dropCollection(SharedNoteContents.COLLECTION);
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() {
+        var ids = new ArrayList<String>();
+        for (var userData : List.of(SOME_USER, ADMIN)) {
+            var headers = getAuthorizationAndContentTypeHeaders(userData);
+            ids.add(template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest(TEMPLATE), headers), SaveNoteResponse.class).getBody().id());
+        }
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var found = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), NoteDTO.class, ids.get(0)).getBody();
+        var stored = raw(ids.get(0));
+
+        assertAll(
+                () -> assertThat(stored.getString("contentCodec")).isEqualTo("sha256"),
+                () -> assertThat(ids)
+                        .as("Every note should reference the same content")
+                        .allSatisfy(id -> assertThat(raw(id).get("content")).isEqualTo(stored.get("content"))),
+                () -> assertThat(contents().countDocuments())
+                        .as("Content should be stored once")
+                        .isEqualTo(1),
+                () -> assertThat(contents().find().first().get("refCount", Number.class).longValue())
+                        .as("Content should count its references")
+                        .isEqualTo(ids.size()),
+                () -> assertThat(found.content()).isEqualTo(TEMPLATE),
+                () -> assertThat(factory.findById(ids.get(1)).orElseThrow().getContent()).isEqualTo(TEMPLATE)
+        );
+    }
+
+    @Test
+    void sharedContentIsCompressed() {
+        var note = factory.insert(SOME_USER.username(), LARGE_TEMPLATE);
+        var body = contents().find(Filters.eq("_id", raw(note.getId()).get("content"))).first();
+
+        assertAll(
+                () -> assertThat(body.getString("contentCodec")).isEqualTo("deflate"),
+                () -> assertThat(body.get("content"))
+                        .isInstanceOfSatisfying(Binary.class, binary -> assertThat(binary.length()).isLessThan(LARGE_TEMPLATE.length())),
+                () -> assertThat(factory.findById(note.getId()).orElseThrow().getContent()).isEqualTo(LARGE_TEMPLATE)
+        );
+    }
+
+    @Test
+    void smallContentIsNotShared() {
+        var note = factory.insert(SOME_USER.username(), "too short to share");
+        var stored = raw(note.getId());
+
+        assertAll(
+                () -> assertThat(stored.get("content")).isEqualTo("too short to share"),
+                () -> assertThat(stored).doesNotContainKey("contentCodec"),
+                () -> assertThat(contents().countDocuments()).isZero()
+        );
+    }
+
+    @Test
+    void updatesAndRemovalsReleaseTheirReferences() {
+        var updated = factory.insert(SOME_USER.username(), TEMPLATE);
+        var removed = factory.insert(SOME_USER.username(), TEMPLATE);
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+
+        var update = new UpdateNoteRequest("not shared anymore", updated.getVersion());
+        template.exchange("/notes/{id}", PUT, new HttpEntity<>(update, headers), NoteDTO.class, updated.getId());
+        var afterUpdate = refCount();
+        template.exchange("/notes/{id}", DELETE, new HttpEntity<Void>(headers), Void.class, removed.getId());
+
+        assertAll(
+                () -> assertThat(afterUpdate)
+                        .as("An update should release the content it replaced")
+                        .isEqualTo(1),
+                () -> assertThat(refCount())
+                        .as("A removal should release the content the note held")
+                        .isZero(),
+                () -> assertThat(factory.findById(updated.getId()).orElseThrow().getContent()).isEqualTo("not shared anymore")
+        );
+    }
+
+    @Test
+    void sharedContentIsSearchable() throws JsonProcessingException {
+        var note = factory.insert(SOME_USER.username(), TEMPLATE);
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var response = template.exchange("/notes/search?q={q}&fields={f}", GET, new HttpEntity<Void>(headers), String.class, "attendees", "id");
+        var found = objectMapper.readValue(response.getBody(), new TypeReference<ResultPage<NoteSearchResult>>() {
+        });
+
+        assertThat(found.content())
+                .extracting(result -> result.note().id())
+                .as("Shared content should be found by text searches")
+                .containsExactly(note.getId());
+    }
+
+    @Test
+    void unreferencedContentIsCollected() {
+        var kept = factory.insert(SOME_USER.username(), TEMPLATE);
+        var replaced = factory.insert(SOME_USER.username(), LARGE_TEMPLATE);
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var update = new UpdateNoteRequest(TEMPLATE, replaced.getVersion());
+        template.exchange("/notes/{id}", PUT, new HttpEntity<>(update, headers), NoteDTO.class, replaced.getId());
+
+        var removed = shared.collect();
+        var body = contents().find().first();
+
+        assertAll(
+                () -> assertThat(removed)
+                        .as("The content no note references anymore should be removed")
+                        .isEqualTo(1),
+                () -> assertThat(contents().countDocuments()).isEqualTo(1),
+                () -> assertThat(body.get("refCount", Number.class).longValue())
+                        .as("References should be recounted")
+                        .isEqualTo(2),
+                () -> assertThat(factory.findById(kept.getId()).orElseThrow().getContent()).isEqualTo(TEMPLATE),
+                () -> assertThat(factory.findById(replaced.getId()).orElseThrow().getContent()).isEqualTo(TEMPLATE)
+        );
+
+        factory.deleteAll();
+        assertAll(
+                () -> assertThat(shared.collect()).isEqualTo(1),
+                () -> assertThat(contents().countDocuments()).isZero()
+        );
+    }
+
+    private Document raw(String id) {
+        var notes = operations.getCollection(operations.getCollectionName(Note.class));
+        return notes.find(Filters.eq("_id", new ObjectId(id))).first();
+    }
+
+    private long refCount() {
+        return contents().find().first().get("refCount", Number.class).longValue();
+    }
+
+    private MongoCollection<Document> contents() {
+        return operations.getCollection(SharedNoteContents.COLLECTION);
+    }
+}
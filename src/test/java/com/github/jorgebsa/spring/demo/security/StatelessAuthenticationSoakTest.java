@@ -0,0 +1,112 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/*
+ * Sends a large number of authenticated requests and samples the heap after
+ * each round. Nothing should be kept per request, so once the first round
+ * has warmed everything up, the retained heap should stay flat. Only run by
+ * the soakTest task, which takes the number of requests from -PsoakRequests.
+ */
+@Tag("soak")
+public class StatelessAuthenticationSoakTest extends ApplicationTests {
+
+    private static final Logger log = LoggerFactory.getLogger(StatelessAuthenticationSoakTest.class);
+
+    private static final int ROUNDS = 10;
+    private static final int CLIENTS = 16;
+    private static final long MAX_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void heapStaysFlat() throws Exception {
+        var requests = Integer.getInteger("soak.requests", 1_000_000);
+        var note = factory.insert(SOME_USER.username(), "soak");
+        var client = HttpClient.newHttpClient();
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/notes/" + note.getId()))
+                .header(HttpHeaders.AUTHORIZATION, getAuthorizationHeader(SOME_USER).getFirst(HttpHeaders.AUTHORIZATION))
+                .build();
+
+        var failures = new AtomicLong();
+        var cookies = new AtomicLong();
+        Callable<Void> worker = () -> {
+            for (int i = 0; i < requests / ROUNDS / CLIENTS; i++) {
+                var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    failures.incrementAndGet();
+                }
+                if (response.headers().firstValue(HttpHeaders.SET_COOKIE).isPresent()) {
+                    cookies.incrementAndGet();
+                }
+            }
+            return null;
+        };
+
+        var samples = new ArrayList<Long>(ROUNDS);
+        var executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                for (var future : executor.invokeAll(Collections.nCopies(CLIENTS, worker))) {
+                    future.get();
+                }
+                samples.add(usedHeapAfterGc());
+                log.info("Heap after round [{}] of [{}] requests: [{}] bytes", round + 1, requests / ROUNDS, samples.get(round));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var warm = samples.subList(1, samples.size());
+        var growth = Collections.max(warm) - warm.get(0);
+        assertAll(
+                () -> assertThat(failures.get())
+                        .as("Every request should succeed")
+                        .isZero(),
+                () -> assertThat(cookies.get())
+                        .as("No response should set a cookie")
+                        .isZero(),
+                () -> assertThat(growth)
+                        .as("Retained heap should not grow with the number of requests, samples: %s", samples)
+                        .isLessThan(MAX_GROWTH_BYTES)
+        );
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        var memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
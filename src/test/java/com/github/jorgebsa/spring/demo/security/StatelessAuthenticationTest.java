@@ -0,0 +1,59 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.web.authentication.session.NullAuthenticatedSessionStrategy;
+import org.springframework.security.web.authentication.session.SessionAuthenticationStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.OK;
+
+public class StatelessAuthenticationTest extends ApplicationTests {
+
+    @Autowired
+    private NoteFactory factory;
+
+    @Autowired
+    private SessionAuthenticationStrategy sessionAuthenticationStrategy;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void authenticatedRequestsCreateNoSession(UserData userData) {
+        factory.insertNotes(3);
+        var headers = getAuthorizationAndContentTypeHeaders(userData);
+
+        var saved = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest("stateless"), headers), String.class);
+        var page = template.exchange("/notes", GET, new HttpEntity<Void>(headers), String.class);
+
+        assertAll(
+                () -> assertThat(saved.getStatusCode()).isEqualTo(CREATED),
+                () -> assertThat(page.getStatusCode()).isEqualTo(OK),
+                () -> assertThat(saved.getHeaders().get(HttpHeaders.SET_COOKIE))
+                        .as("No session cookie should be set when saving")
+                        .isNull(),
+                () -> assertThat(page.getHeaders().get(HttpHeaders.SET_COOKIE))
+                        .as("No session cookie should be set when reading")
+                        .isNull(),
+                () -> assertThat(sessionAuthenticationStrategy)
+                        .as("Authentication should not register sessions")
+                        .isInstanceOf(NullAuthenticatedSessionStrategy.class)
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.jorgebsa.spring.demo.security;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.representations.AccessToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.OK;
+
+public class VerifiedTokenCacheTest extends ApplicationTests {
+
+    @Autowired
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache.invalidateAll();
+    }
+
+    @Test
+    void verifiedTokensAreCached() {
+        var headers = getAuthorizationHeader(SOME_USER);
+        var encoded = headers.getFirst(HttpHeaders.AUTHORIZATION).substring("Bearer ".length());
+
+        var first = template.exchange("/notes", GET, new HttpEntity<Void>(headers), String.class);
+        var cached = cache.get(encoded);
+        var second = template.exchange("/notes", GET, new HttpEntity<Void>(headers), String.class);
+
+        assertAll(
+                () -> assertThat(first.getStatusCode()).isEqualTo(OK),
+                () -> assertThat(second.getStatusCode())
+                        .as("A cached token should still authenticate")
+                        .isEqualTo(OK),
+                () -> assertThat(cached)
+                        .as("The token should be cached once verified")
+                        .hasValueSatisfying(token -> assertThat(token.getPreferredUsername()).isEqualTo(SOME_USER.username())),
+                () -> assertThat(cache.size()).isEqualTo(1)
+        );
+    }
+
+    @Test
+    void tamperedTokensAreNotCached() {
+        var encoded = getAuthorizationHeader(SOME_USER).getFirst(HttpHeaders.AUTHORIZATION).substring("Bearer ".length());
+        var tampered = encoded.substring(0, encoded.length() - 4) + (encoded.endsWith("AAAA") ? "BBBB" : "AAAA");
+        var headers = new HttpHeaders();
+        headers.setBearerAuth(tampered);
+
+        var responseEntity = template.exchange("/notes", GET, new HttpEntity<Void>(headers), String.class);
+
+        assertAll(
+                () -> assertThat(responseEntity.getStatusCode())
+                        .as("A token with a broken signature should not authenticate")
+                        .isNotEqualTo(OK),
+                () -> assertThat(cache.get(tampered)).isEmpty()
+        );
+    }
+
+    @Test
+    void expiredTokensAreNotCached() {
+        var expired = new AccessToken();
+        expired.exp(System.currentTimeMillis() / 1000 - 1);
+        var unbounded = new AccessToken();
+
+        cache.put("expired", expired);
+        cache.put("unbounded", unbounded);
+
+        assertAll(
+                () -> assertThat(cache.get("expired")).isEmpty(),
+                () -> assertThat(cache.get("unbounded"))
+                        .as("Tokens that never expire should be verified every time")
+                        .isEmpty()
+        );
+    }
+}
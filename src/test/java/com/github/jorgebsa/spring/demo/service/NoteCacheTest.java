@@ -0,0 +1,54 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.dao.Note;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteCacheTest {
+
+    @Test
+    void readThroughDoesNotOutliveInvalidation() throws Exception {
+        var cache = new NoteCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        var note = new Note("some user", "some content");
+        note.setId("1");
+        var loading = new CountDownLatch(1);
+        var read = new CountDownLatch(1);
+
+        /* The read finds the note right before it is removed, and only completes afterwards */
+        var reader = CompletableFuture.supplyAsync(() -> cache.get(note.getId(), id -> {
+            loading.countDown();
+            await(read);
+            return Optional.of(note);
+        }));
+        await(loading);
+        var remover = CompletableFuture.runAsync(() -> cache.invalidate(note.getId()));
+
+        assertThat(remover)
+                .as("The removal should wait for the read holding the entry")
+                .failsWithin(Duration.ofMillis(200));
+        read.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+        remover.get(5, TimeUnit.SECONDS);
+
+        assertThat(cache.get(note.getId()))
+                .as("A note removed while being read should not be left in the cache")
+                .isEmpty();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
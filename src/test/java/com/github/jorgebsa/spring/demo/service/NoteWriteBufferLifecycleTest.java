@@ -0,0 +1,85 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.POST;
+
+/*
+ * Stops the whole context, so it gets one of its own that is thrown away
+ * afterwards.
+ */
+@DirtiesContext
+@TestPropertySource(properties = {"notes.write-buffer.enabled=true", "notes.write-buffer.max-delay=1s"})
+class NoteWriteBufferLifecycleTest extends ApplicationTests {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private NoteWriteBuffer writeBuffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void stopsOnlyOnceTheWebServerHasStopped() {
+        var webServer = context.getBean("webServerStartStop", SmartLifecycle.class);
+
+        assertThat(writeBuffer.getPhase())
+                .as("The buffer should start before, and stop after, the web server")
+                .isLessThan(webServer.getPhase());
+    }
+
+    @Test
+    void pendingSaveIsWrittenWhenStopping() {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var pending = meterRegistry.get("notes.write-buffer.pending").gauge();
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            /* The response may never make it back, the web server closes its connections when it stops */
+            executor.submit(() -> template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest("saved while stopping"), headers), String.class));
+            await().atMost(Duration.ofSeconds(10)).until(() -> pending.value() > 0);
+
+            context.stop();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertAll(
+                () -> assertThat(writeBuffer.isRunning()).isFalse(),
+                () -> assertThat(pending.value())
+                        .as("No note should be left waiting")
+                        .isZero(),
+                () -> assertThat(factory.findAll()).extracting(Note::getContent)
+                        .as("The pending note should have been written")
+                        .containsExactly("saved while stopping")
+        );
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.jorgebsa.spring.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+class TrigramIndexTest {
+
+    @Test
+    void findByWordPrefix() {
+        var index = new TrigramIndex(1024);
+        index.put("1", "ann", 1, "Meeting notes, Tuesday");
+        index.put("2", "bob", 1, "Remember the meetup");
+        index.put("3", "ann", 1, "Unmeetable deadline");
+        index.put("4", "bob", 1, "and condo");
+
+        assertAll(
+                () -> assertThat(index.find("meet", null, 10, false))
+                        .as("Words starting with the prefix should match, ignoring case")
+                        .extracting(match -> match.entry().id())
+                        .containsExactlyInAnyOrder("1", "2"),
+                () -> assertThat(index.find("MEETING", "ann", 10, false))
+                        .as("Matches should point at the matching word")
+                        .singleElement()
+                        .extracting(TrigramIndex.Match::offset)
+                        .isEqualTo(0),
+                () -> assertThat(index.find("meetup", "ann", 10, false))
+                        .as("Notes of other owners should not match")
+                        .isEmpty(),
+                () -> assertThat(index.find("ando", null, 10, false))
+                        .as("Trigrams found apart should not match")
+                        .isEmpty(),
+                () -> assertThat(index.find("meet", null, 1, false)).hasSize(1)
+        );
+    }
+
+    @Test
+    void putAndRemoveKeepPostingsCurrent() {
+        var index = new TrigramIndex(1024);
+        index.put("1", "ann", 1, "first draft");
+        index.put("1", "ann", 2, "second draft");
+        index.put("1", "ann", 1, "late first draft");
+        index.put("2", "ann", 1, "another draft");
+        index.remove("2");
+        index.put("3", "ann", 1, "reused draft");
+
+        assertAll(
+                () -> assertThat(index.find("first", null, 10, false))
+                        .as("Replaced content should no longer match")
+                        .isEmpty(),
+                () -> assertThat(index.find("second", null, 10, false))
+                        .as("Older versions should not replace newer ones")
+                        .extracting(match -> match.entry().id())
+                        .containsExactly("1"),
+                () -> assertThat(index.find("another", null, 10, false))
+                        .as("Removed notes should no longer match")
+                        .isEmpty(),
+                () -> assertThat(index.find("draft", null, 10, false))
+                        .extracting(match -> match.entry().id())
+                        .containsExactlyInAnyOrder("1", "3"),
+                () -> assertThat(index.size()).isEqualTo(2),
+                () -> assertThat(index.versionOf("1")).isEqualTo(2L),
+                () -> assertThat(index.versionOf("2")).isNull()
+        );
+    }
+
+    @Test
+    void findBySubstring() {
+        var index = new TrigramIndex(1024);
+        index.put("1", "ann", 1, "Meeting notes, Tuesday");
+        index.put("2", "ann", 1, "Unmeetable deadline");
+        index.put("3", "ann", 1, "and condo");
+
+        assertAll(
+                () -> assertThat(index.find("eet", null, 10, true))
+                        .as("Words containing the text anywhere should match")
+                        .extracting(match -> match.entry().id())
+                        .containsExactlyInAnyOrder("1", "2"),
+                () -> assertThat(index.find("ESDA", null, 10, true))
+                        .as("Matches should point at the word containing the text")
+                        .singleElement()
+                        .satisfies(match -> assertAll(
+                                () -> assertThat(match.offset()).isEqualTo(15),
+                                () -> assertThat(match.snippet(80)).isEqualTo("Tuesday")
+                        )),
+                () -> assertThat(index.find("ando", null, 10, true))
+                        .as("Trigrams found apart should not match")
+                        .isEmpty()
+        );
+    }
+
+    @Test
+    void indexOnlyTheStartOfContent() {
+        var content = "Zanzibar trip, then book the flights";
+        var index = new TrigramIndex(13);
+        index.put("1", "ann", 1, content);
+        var uncapped = new TrigramIndex(1024);
+        uncapped.put("1", "ann", 1, content);
+
+        assertAll(
+                () -> assertThat(index.find("zanz", null, 10, false))
+                        .singleElement()
+                        .extracting(match -> match.snippet(80))
+                        .as("Snippets should come from the indexed text")
+                        .isEqualTo("Zanzibar trip"),
+                () -> assertThat(index.find("book", null, 10, false))
+                        .as("Content past the indexed length should not match")
+                        .isEmpty(),
+                () -> assertThat(index.estimateBytes())
+                        .as("The indexed text should be bounded")
+                        .isLessThan(uncapped.estimateBytes())
+        );
+    }
+}
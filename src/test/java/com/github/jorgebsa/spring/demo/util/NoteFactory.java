@@ -1,11 +1,14 @@
 package com.github.jorgebsa.spring.demo.util;
 
 import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
 import com.github.jorgebsa.spring.demo.dao.NoteRepository;
+import com.github.jorgebsa.spring.demo.service.NoteCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -14,6 +17,12 @@ public class NoteFactory {
     @Autowired
     private NoteRepository repository;
 
+    @Autowired
+    private NoteCache cache;
+
+    @Autowired
+    private NoteCounters counters;
+
     public ArrayList<Note> insertNotes(int count) {
         return insertNotes(count, 3);
     }
@@ -26,10 +35,21 @@ public class NoteFactory {
             savedNotes.add(new Note(username, content));
         }
         repository.insert(savedNotes);
+        counters.reconcile();
         return savedNotes;
     }
 
     public Note insert(String username, String content) {
+        var note = repository.insert(new Note(username, content));
+        counters.reconcile();
+        return note;
+    }
+
+    /**
+     * Inserts a note without updating the note counters, the way a write
+     * that bypassed the services would.
+     */
+    public Note insertUncounted(String username, String content) {
         return repository.insert(new Note(username, content));
     }
 
@@ -39,10 +59,16 @@ public class NoteFactory {
 
     public void deleteAll() {
         repository.deleteAll();
+        cache.invalidateAll();
+        counters.reconcile();
     }
 
     public Optional<Note> findById(String id) {
         return repository.findById(id);
     }
 
+    public List<Note> findAll() {
+        return repository.findAll();
+    }
+
 }
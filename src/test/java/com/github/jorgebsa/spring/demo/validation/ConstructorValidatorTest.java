@@ -0,0 +1,68 @@
+package com.github.jorgebsa.spring.demo.validation;
+
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolationException;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConstructorValidatorTest {
+
+    record Sized(String content) implements Validatable {
+
+        Sized(@NotBlank @Size(max = 5) String content) {
+            validate(content);
+            this.content = content;
+        }
+    }
+
+    @Test
+    void validatorIsResolvedOncePerType() {
+        assertAll(
+                () -> assertThat(ConstructorValidator.of(UpdateNoteRequest.class))
+                        .isSameAs(ConstructorValidator.of(UpdateNoteRequest.class)),
+                () -> assertThat(ConstructorValidator.of(SaveNoteRequest.class).hasFastPath())
+                        .as("@NotBlank should be checked without Bean Validation")
+                        .isTrue(),
+                () -> assertThat(ConstructorValidator.of(UpdateNoteRequest.class).hasFastPath())
+                        .as("@NotBlank and @Positive should be checked without Bean Validation")
+                        .isTrue(),
+                () -> assertThat(ConstructorValidator.of(Sized.class).hasFastPath())
+                        .as("Other constraints should be left to Bean Validation")
+                        .isFalse()
+        );
+    }
+
+    @Test
+    void violationsMatchBeanValidation() {
+        var blank = assertThrows(ConstraintViolationException.class, () -> new UpdateNoteRequest(" ", 0));
+        var missing = assertThrows(ConstraintViolationException.class, () -> new SaveNoteRequest(null));
+        var tooLong = assertThrows(ConstraintViolationException.class, () -> new Sized("too long"));
+
+        assertAll(
+                () -> assertThat(Violation.from(blank))
+                        .containsExactly(new Violation("content", "must not be blank"), new Violation("version", "must be greater than 0")),
+                () -> assertThat(Violation.from(missing))
+                        .containsExactly(new Violation("content", "must not be blank")),
+                () -> assertThat(Violation.from(tooLong))
+                        .containsExactly(new Violation("content", "size must be between 0 and 5"))
+        );
+    }
+
+    @Test
+    void validArgumentsPass() {
+        assertAll(
+                () -> assertThat(new UpdateNoteRequest("content", 1).version()).isEqualTo(1),
+                () -> assertThat(new SaveNoteRequest("\u2003").content())
+                        .as("An em space, which trim() keeps, is not blank to Bean Validation")
+                        .isEqualTo("\u2003"),
+                () -> assertThat(new Sized("short").content()).isEqualTo("short")
+        );
+    }
+}
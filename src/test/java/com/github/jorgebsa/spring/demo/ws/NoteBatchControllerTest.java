@@ -0,0 +1,284 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.BatchResponse;
+import com.github.jorgebsa.spring.demo.base.BatchUpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.UserData;
+import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.PATCH;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.MULTI_STATUS;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+
+public class NoteBatchControllerTest extends ApplicationTests {
+
+    private static final TypeReference<BatchResponse<SaveNoteResponse>> SAVE_BATCH_TYPE_REFERENCE = new TypeReference<>() {
+    };
+
+    private static final TypeReference<BatchResponse<NoteDTO>> NOTE_BATCH_TYPE_REFERENCE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void saveNotes(UserData userData) throws JsonProcessingException {
+        var requests = IntStream.range(0, 25)
+                .mapToObj(i -> new SaveNoteRequest("content of batch note #" + i))
+                .toList();
+        var httpEntity = new HttpEntity<>(requests, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", POST, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(CREATED);
+
+        var body = objectMapper.readValue(responseEntity.getBody(), SAVE_BATCH_TYPE_REFERENCE);
+        assertAll(
+                () -> assertThat(body.succeeded())
+                        .as("All notes should have been created")
+                        .isEqualTo(requests.size()),
+                () -> assertThat(body.failed())
+                        .as("No note should have failed")
+                        .isZero(),
+                () -> assertThat(body.items())
+                        .as("Each item should match its request")
+                        .allSatisfy(item -> {
+                            assertThat(item.status()).isEqualTo(CREATED.value());
+                            assertThat(item.result().content()).isEqualTo(requests.get(item.index()).content());
+                            assertThat(item.result().username()).isEqualTo(userData.username());
+                            assertThat(item.result().version()).isEqualTo(1L);
+                            assertMillisIsRecent(item.result().createdAt());
+                        }),
+                () -> assertThat(body.items())
+                        .as("Every note should have been persisted")
+                        .allSatisfy(item -> assertThat(factory.findById(item.result().id())).isPresent())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void saveNotesWithAnInvalidItem(UserData userData) {
+        var headers = getAuthorizationAndContentTypeHeaders(userData);
+        var httpEntity = new HttpEntity<>("[{\"content\":\"fine\"},{\"content\":\" \"}]", headers);
+
+        var responseEntity = template.exchange("/notes/batch", POST, httpEntity, ErrorMessage.class);
+        assertErrorMessage(BAD_REQUEST, responseEntity, Violation.asMaps(new Violation("content", "must not be blank")));
+        assertThat(factory.findAll())
+                .as("Nothing should have been created")
+                .isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void saveEmptyBatch(UserData userData) {
+        var httpEntity = new HttpEntity<>(List.of(), getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", POST, httpEntity, ErrorMessage.class);
+        assertErrorMessage(BAD_REQUEST, responseEntity, Violation.asMaps(new Violation("requests", "must not be empty")));
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void updateNotes(UserData userData) throws JsonProcessingException {
+        var first = factory.insert(userData.username(), "first content");
+        var second = factory.insert(userData.username(), "second content");
+        var requests = List.of(
+                new BatchUpdateNoteRequest(first.getId(), "first updated", first.getVersion()),
+                new BatchUpdateNoteRequest(second.getId(), "second updated", second.getVersion())
+        );
+        var httpEntity = new HttpEntity<>(requests, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", PATCH, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var body = objectMapper.readValue(responseEntity.getBody(), NOTE_BATCH_TYPE_REFERENCE);
+        assertAll(
+                () -> assertThat(body.succeeded())
+                        .as("All notes should have been updated")
+                        .isEqualTo(2),
+                () -> assertThat(body.items())
+                        .as("Each item should report the note's new version")
+                        .allSatisfy(item -> {
+                            assertThat(item.status()).isEqualTo(OK.value());
+                            assertThat(item.result().id()).isEqualTo(requests.get(item.index()).id());
+                            assertThat(item.result().version()).isEqualTo(requests.get(item.index()).version() + 1);
+                            assertThat(item.result().content()).isNull();
+                        }),
+                () -> assertThat(factory.findById(first.getId()))
+                        .as("First note's content should have been replaced")
+                        .hasValueSatisfying(note -> assertThat(note.getContent()).isEqualTo("first updated")),
+                () -> assertThat(factory.findById(second.getId()))
+                        .as("Second note's content should have been replaced")
+                        .hasValueSatisfying(note -> assertThat(note.getContent()).isEqualTo("second updated"))
+        );
+    }
+
+    @Test
+    void updateNotesWithPartialFailures() throws JsonProcessingException {
+        var userData = UserData.SOME_USER;
+        var mine = factory.insert(userData.username(), "mine");
+        var outdated = factory.insert(userData.username(), "outdated");
+        var foreign = factory.insert("different-user", "not mine");
+        var requests = List.of(
+                new BatchUpdateNoteRequest(mine.getId(), "mine updated", mine.getVersion()),
+                new BatchUpdateNoteRequest(outdated.getId(), "outdated updated", outdated.getVersion() + 5),
+                new BatchUpdateNoteRequest(foreign.getId(), "foreign updated", foreign.getVersion()),
+                new BatchUpdateNoteRequest("this-wont-be-found", "missing updated", 1)
+        );
+        var httpEntity = new HttpEntity<>(requests, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", PATCH, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(MULTI_STATUS);
+
+        var body = objectMapper.readValue(responseEntity.getBody(), NOTE_BATCH_TYPE_REFERENCE);
+        var items = body.items();
+        assertAll(
+                () -> assertThat(body.succeeded()).isEqualTo(1),
+                () -> assertThat(body.failed()).isEqualTo(3),
+                () -> assertThat(items.get(0).status())
+                        .as("The note with the right version should be updated")
+                        .isEqualTo(OK.value()),
+                () -> assertThat(items.get(1).errors())
+                        .as("The note with the wrong version should conflict")
+                        .containsExactly(new Violation("version", "incorrect value: " + (outdated.getVersion() + 5))),
+                () -> assertThat(items.get(1).status()).isEqualTo(CONFLICT.value()),
+                () -> assertThat(items.get(2).errors())
+                        .as("The note of another user should be forbidden")
+                        .containsExactly(new Violation("id", "note [" + foreign.getId() + "] does not belong to you")),
+                () -> assertThat(items.get(2).status()).isEqualTo(FORBIDDEN.value()),
+                () -> assertThat(items.get(3).status())
+                        .as("The missing note should not be found")
+                        .isEqualTo(NOT_FOUND.value()),
+                () -> assertThat(factory.findById(foreign.getId()))
+                        .as("The note of another user should be untouched")
+                        .hasValueSatisfying(note -> assertThat(note.getContent()).isEqualTo("not mine"))
+        );
+    }
+
+    @Test
+    void updateNotesWithDuplicateIds() throws JsonProcessingException {
+        var userData = UserData.SOME_USER;
+        var twice = factory.insert(userData.username(), "twice");
+        var once = factory.insert(userData.username(), "once");
+        var requests = List.of(
+                new BatchUpdateNoteRequest(twice.getId(), "twice updated", twice.getVersion()),
+                new BatchUpdateNoteRequest(once.getId(), "once updated", once.getVersion()),
+                new BatchUpdateNoteRequest(twice.getId(), "twice updated again", twice.getVersion())
+        );
+        var httpEntity = new HttpEntity<>(requests, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", PATCH, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(MULTI_STATUS);
+
+        var items = objectMapper.readValue(responseEntity.getBody(), NOTE_BATCH_TYPE_REFERENCE).items();
+        var duplicated = new Violation("id", "note [" + twice.getId() + "] appears more than once in the batch");
+        assertAll(
+                () -> assertThat(items).extracting(item -> item.status())
+                        .as("Every item naming the same note should be rejected")
+                        .containsExactly(BAD_REQUEST.value(), OK.value(), BAD_REQUEST.value()),
+                () -> assertThat(items.get(0).errors()).containsExactly(duplicated),
+                () -> assertThat(items.get(2).errors()).containsExactly(duplicated),
+                () -> assertThat(factory.findById(twice.getId()))
+                        .as("The note named twice should be untouched")
+                        .hasValueSatisfying(note -> assertThat(note.getContent()).isEqualTo("twice")),
+                () -> assertThat(factory.findById(once.getId()))
+                        .hasValueSatisfying(note -> assertThat(note.getContent()).isEqualTo("once updated"))
+        );
+    }
+
+    @Test
+    void removeNotesWithDuplicateIds() throws JsonProcessingException {
+        var userData = UserData.SOME_USER;
+        var twice = factory.insert(userData.username(), "twice");
+        var once = factory.insert(userData.username(), "once");
+        var ids = List.of(twice.getId(), once.getId(), twice.getId());
+        var httpEntity = new HttpEntity<>(ids, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", DELETE, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(MULTI_STATUS);
+
+        var body = objectMapper.readValue(responseEntity.getBody(), NOTE_BATCH_TYPE_REFERENCE);
+        assertAll(
+                () -> assertThat(body.items()).extracting(item -> item.status())
+                        .as("Every item naming the same note should be rejected")
+                        .containsExactly(BAD_REQUEST.value(), OK.value(), BAD_REQUEST.value()),
+                () -> assertThat(body.succeeded()).isEqualTo(1),
+                () -> assertThat(factory.findById(twice.getId())).isPresent(),
+                () -> assertThat(factory.findById(once.getId())).isEmpty()
+        );
+    }
+
+    @Test
+    void removeNotesWithPartialFailures() throws JsonProcessingException {
+        var userData = UserData.SOME_USER;
+        var mine = factory.insert(userData.username(), "mine");
+        var foreign = factory.insert("different-user", "not mine");
+        var ids = List.of(mine.getId(), foreign.getId(), "this-wont-be-found");
+        var httpEntity = new HttpEntity<>(ids, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/batch", DELETE, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(MULTI_STATUS);
+
+        var body = objectMapper.readValue(responseEntity.getBody(), NOTE_BATCH_TYPE_REFERENCE);
+        var items = body.items();
+        assertAll(
+                () -> assertThat(items).extracting(item -> item.status())
+                        .as("Only the requester's note should be removed")
+                        .containsExactly(OK.value(), FORBIDDEN.value(), NOT_FOUND.value()),
+                () -> assertThat(factory.findById(mine.getId())).isEmpty(),
+                () -> assertThat(factory.findById(foreign.getId())).isPresent()
+        );
+    }
+
+    @Test
+    void removeNotesOfDifferentUsersAsAdmin() throws JsonProcessingException {
+        var first = factory.insert("different-user", "first");
+        var second = factory.insert("another-user", "second");
+        var ids = List.of(first.getId(), second.getId());
+        var httpEntity = new HttpEntity<>(ids, getAuthorizationHeader(UserData.ADMIN));
+
+        var responseEntity = template.exchange("/notes/batch", DELETE, httpEntity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var body = objectMapper.readValue(responseEntity.getBody(), NOTE_BATCH_TYPE_REFERENCE);
+        assertAll(
+                () -> assertThat(body.items()).extracting(item -> item.result().username())
+                        .as("Each item should report the note's owner")
+                        .containsExactly("different-user", "another-user"),
+                () -> assertThat(factory.findAll())
+                        .as("All notes should have been removed")
+                        .isEmpty()
+        );
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+
+import java.time.Duration;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.PUT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+
+public class NoteControllerCacheTest extends ApplicationTests {
+
+    @Autowired
+    private NoteFactory factory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void findByIdIsServedFromCache() {
+        var saved = factory.insert(SOME_USER.username(), "cached content");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+        var hitsBefore = cacheGets("hit");
+
+        var first = template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+        var second = template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+        var projected = template.exchange("/notes/{id}?fields=id,version", GET, entity, NoteDTO.class, saved.getId());
+
+        assertAll(
+                () -> assertThat(first.getStatusCode()).isEqualTo(OK),
+                () -> assertThat(second.getBody())
+                        .as("Second read should be served from the cache")
+                        .isEqualTo(first.getBody()),
+                () -> assertThat(projected.getBody())
+                        .as("Projected read should be narrowed down from the cached note")
+                        .isEqualTo(new NoteDTO(saved.getId(), null, null, null, null, 1L)),
+                () -> assertThat(cacheGets("hit") - hitsBefore)
+                        .as("Both reads after the first should count as hits")
+                        .isEqualTo(2.0)
+        );
+    }
+
+    @Test
+    void updateAndRemoveKeepCacheCurrent() {
+        var saved = factory.insert(SOME_USER.username(), "first content");
+        var headers = getAuthorizationHeader(SOME_USER);
+        var entity = new HttpEntity<Void>(headers);
+        template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+
+        var update = new HttpEntity<>(new UpdateNoteRequest("second content", saved.getVersion()), headers);
+        template.exchange("/notes/{id}", PUT, update, NoteDTO.class, saved.getId());
+        var updated = template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+
+        template.exchange("/notes/{id}", DELETE, entity, Void.class, saved.getId());
+        var removed = template.exchange("/notes/{id}", GET, entity, String.class, saved.getId());
+
+        assertAll(
+                () -> assertThat(updated.getBody())
+                        .as("Read after update should return the updated note")
+                        .extracting(NoteDTO::content, NoteDTO::version)
+                        .containsExactly("second content", 2L),
+                () -> assertThat(removed.getStatusCode())
+                        .as("Read after removal should not find the note")
+                        .isEqualTo(NOT_FOUND)
+        );
+    }
+
+    @Test
+    void changesMadeElsewhereInvalidateCache() {
+        var saved = factory.insert(SOME_USER.username(), "content before");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+        template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId());
+
+        /* written straight to the database, the way another instance would */
+        saved.setContent("content after");
+        factory.save(saved);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(template.exchange("/notes/{id}", GET, entity, NoteDTO.class, saved.getId()).getBody())
+                        .as("Read after a change elsewhere should eventually see it")
+                        .extracting(NoteDTO::content, NoteDTO::version)
+                        .containsExactly("content after", 2L)
+        );
+    }
+
+    private double cacheGets(String result) {
+        var counter = meterRegistry.find("cache.gets").tags("cache", "notes", "result", result).functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+}
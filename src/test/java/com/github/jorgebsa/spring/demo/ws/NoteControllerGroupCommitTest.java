@@ -0,0 +1,83 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.CREATED;
+
+@TestPropertySource(properties = {"notes.write-buffer.enabled=true", "notes.write-buffer.max-delay=50ms"})
+public class NoteControllerGroupCommitTest extends ApplicationTests {
+
+    private static final int REQUESTS = 64;
+
+    @Autowired
+    private NoteFactory factory;
+
+    @Autowired
+    private NoteCounters counters;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void concurrentSavesAreGroupCommitted() throws Exception {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var batches = meterRegistry.get("notes.write-buffer.batch").summary();
+        var batchesBefore = batches.count();
+        var saves = IntStream.range(0, REQUESTS)
+                .<Callable<ResponseEntity<SaveNoteResponse>>>mapToObj(i -> () -> template.exchange("/notes", POST,
+                        new HttpEntity<>(new SaveNoteRequest("grouped note #" + i), headers), SaveNoteResponse.class))
+                .toList();
+
+        var executor = Executors.newFixedThreadPool(REQUESTS);
+        var responses = new ArrayList<ResponseEntity<SaveNoteResponse>>(REQUESTS);
+        for (var future : executor.invokeAll(saves)) {
+            responses.add(future.get());
+        }
+        executor.shutdown();
+
+        assertAll(
+                () -> assertThat(responses)
+                        .as("Every save should be answered as if it was inserted on its own")
+                        .allSatisfy(response -> {
+                            assertThat(response.getStatusCode()).isEqualTo(CREATED);
+                            assertThat(response.getBody().version()).isEqualTo(1L);
+                            assertMillisIsRecent(response.getBody().createdAt());
+                        }),
+                () -> assertThat(responses.stream().map(response -> response.getBody().id()).distinct())
+                        .as("Every note should have its own id")
+                        .hasSize(REQUESTS),
+                () -> assertThat(factory.findAll()).hasSize(REQUESTS),
+                () -> assertThat(counters.of(SOME_USER.username()))
+                        .as("Group commits should be counted")
+                        .isEqualTo(REQUESTS),
+                () -> assertThat(batches.count() - batchesBefore)
+                        .as("Concurrent saves should share inserts")
+                        .isLessThan(REQUESTS)
+        );
+    }
+}
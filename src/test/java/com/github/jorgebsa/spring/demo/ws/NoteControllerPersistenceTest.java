@@ -1,10 +1,13 @@
 package com.github.jorgebsa.spring.demo.ws;
 
 import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.ContentOperation;
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.PatchNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
 import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
 import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.dao.Note;
 import com.github.jorgebsa.spring.demo.util.NoteFactory;
 import com.github.jorgebsa.spring.demo.util.UserData;
 import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
@@ -27,6 +30,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.PATCH;
 import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.HttpMethod.PUT;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
@@ -176,6 +180,39 @@ public class NoteControllerPersistenceTest extends ApplicationTests {
         );
     }
 
+    @Test
+    void deleteNoteWhenDifferentUser() {
+        var saved = factory.insert("different-user", "very interesting content indeed");
+        var id = saved.getId();
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(UserData.SOME_USER));
+
+        var responseEntity = template.exchange("/notes/{id}", DELETE, entity, ErrorMessage.class, id);
+        assertErrorMessage(FORBIDDEN, responseEntity, Violation.asMaps(new Violation("id", "note [" + id + "] does not belong to you")));
+        assertThat(factory.findById(id)).isPresent();
+    }
+
+    @Test
+    void deleteNoteOfDifferentUserAsAdmin() {
+        var saved = factory.insert("different-user", "very interesting content indeed");
+        var id = saved.getId();
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(UserData.ADMIN));
+
+        var responseEntity = template.exchange("/notes/{id}", DELETE, entity, NoteDTO.class, id);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var body = responseEntity.getBody();
+        assertThat(body).isNotNull();
+        assertAll(
+                () -> assertThat(body.id())
+                        .as("Response's id should match expected value")
+                        .isEqualTo(id),
+                () -> assertThat(body.username())
+                        .as("Response's username should be the note's owner")
+                        .isEqualTo("different-user")
+        );
+        assertThat(factory.findById(id)).isEmpty();
+    }
+
     @Test
     void deleteByIdWithoutToken() {
         var responseEntity = template.exchange("/notes/{id}", DELETE, null, NoteDTO.class, "this-will-redirect-to-login");
@@ -321,6 +358,126 @@ public class NoteControllerPersistenceTest extends ApplicationTests {
         );
     }
 
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void patchNote(UserData userData) {
+        var saved = factory.insert(userData.username(), "say \uD83D\uDC4B to all");
+        var request = new PatchNoteRequest(saved.getVersion(), List.of(
+                new ContentOperation(ContentOperation.Type.REPLACE, "\uD83D\uDE42", 4, 5),
+                new ContentOperation(ContentOperation.Type.APPEND, " $content", null, null),
+                new ContentOperation(ContentOperation.Type.PREPEND, "> ", null, null)
+        ));
+        var httpEntity = new HttpEntity<>(request, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/{id}", PATCH, httpEntity, NoteDTO.class, saved.getId());
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var body = responseEntity.getBody();
+        assertThat(body).isNotNull();
+        assertAll(
+                () -> assertThat(body.content())
+                        .as("Operations should be applied in order, counting code points, with their text taken literally")
+                        .isEqualTo("> say \uD83D\uDE42 to all $content"),
+                () -> assertThat(factory.findById(saved.getId()).orElseThrow().getContent())
+                        .as("Stored content should match the response")
+                        .isEqualTo(body.content()),
+                () -> assertMillisIsRecent(body.lastModifiedAt()),
+                () -> assertThat(body.version())
+                        .as("Response's version should have been increased by 1")
+                        .isEqualTo(saved.getVersion() + 1)
+        );
+    }
+
+    @Test
+    void patchCompressedNote() {
+        var saved = factory.insert(UserData.SOME_USER.username(), "line\n".repeat(1_000));
+        var request = new PatchNoteRequest(saved.getVersion(), List.of(
+                new ContentOperation(ContentOperation.Type.APPEND, "last line\n", null, null),
+                new ContentOperation(ContentOperation.Type.REPLACE, "LINE", 0, 4)
+        ));
+        var httpEntity = new HttpEntity<>(request, getAuthorizationHeader(UserData.SOME_USER));
+
+        var responseEntity = template.exchange("/notes/{id}", PATCH, httpEntity, NoteDTO.class, saved.getId());
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var expected = "LINE\n" + "line\n".repeat(999) + "last line\n";
+        assertAll(
+                () -> assertThat(responseEntity.getBody().content())
+                        .as("Compressed content should be edited the same way")
+                        .isEqualTo(expected),
+                () -> assertThat(factory.findById(saved.getId()).orElseThrow().getContent()).isEqualTo(expected),
+                () -> assertThat(responseEntity.getBody().version()).isEqualTo(saved.getVersion() + 1)
+        );
+    }
+
+    static Stream<Arguments> patchNoteWithInvalidPayload() {
+        return Stream.of(
+                arguments("[]", new Violation("operations", "must not be empty")),
+                arguments("[{\"op\":\"append\"}]", new Violation("text", "must not be null")),
+                arguments("[{\"op\":\"append\",\"text\":\"x\",\"start\":2}]", new Violation("start", "only applies when replacing")),
+                arguments("[{\"op\":\"replace\",\"text\":\"x\",\"start\":2}]", new Violation("end", "must not be null when replacing")),
+                arguments("[{\"op\":\"replace\",\"text\":\"x\",\"start\":3,\"end\":1}]", new Violation("end", "must not be less than start")),
+                arguments("[{\"op\":\"replace\",\"text\":\"x\",\"start\":-1,\"end\":1}]", new Violation("start", "must be greater than or equal to 0"))
+        );
+    }
+
+    @MethodSource
+    @ParameterizedTest
+    void patchNoteWithInvalidPayload(String operations, Violation violation) {
+        var saved = factory.insert(UserData.SOME_USER.username(), "yay!");
+        var headers = getAuthorizationAndContentTypeHeaders(UserData.SOME_USER);
+        var httpEntity = new HttpEntity<>("{\"version\":1,\"operations\":" + operations + "}", headers);
+
+        var responseEntity = template.exchange("/notes/{id}", PATCH, httpEntity, ErrorMessage.class, saved.getId());
+        assertErrorMessage(BAD_REQUEST, responseEntity, Violation.asMaps(violation));
+    }
+
+    @Test
+    void patchNoteWithIncorrectVersion() {
+        var saved = factory.insert(UserData.SOME_USER.username(), "this is such an interesting content");
+        saved.setContent("updated already");
+        saved = factory.save(saved);
+        var id = saved.getId();
+
+        var incorrectVersion = saved.getVersion() - 1L;
+        var request = new PatchNoteRequest(incorrectVersion, List.of(new ContentOperation(ContentOperation.Type.APPEND, "!", null, null)));
+        var httpEntity = new HttpEntity<>(request, getAuthorizationHeader(UserData.SOME_USER));
+
+        var responseEntity = template.exchange("/notes/{id}", PATCH, httpEntity, ErrorMessage.class, id);
+        assertAll(
+                () -> assertErrorMessage(CONFLICT, responseEntity, Violation.asMaps(new Violation("version", "incorrect value: " + incorrectVersion))),
+                () -> assertThat(factory.findById(id).orElseThrow().getContent())
+                        .as("Content should be left as it was")
+                        .isEqualTo("updated already")
+        );
+    }
+
+    static Stream<Arguments> patchNoteLeavingBlankContent() {
+        return Stream.of(
+                arguments("yay!", " \n"),
+                arguments("line\n".repeat(1_000), "")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource
+    void patchNoteLeavingBlankContent(String content, String replacement) {
+        var saved = factory.insert(UserData.SOME_USER.username(), content);
+        var request = new PatchNoteRequest(saved.getVersion(), List.of(
+                new ContentOperation(ContentOperation.Type.REPLACE, replacement, 0, content.length())
+        ));
+        var httpEntity = new HttpEntity<>(request, getAuthorizationHeader(UserData.SOME_USER));
+
+        var responseEntity = template.exchange("/notes/{id}", PATCH, httpEntity, ErrorMessage.class, saved.getId());
+        assertAll(
+                () -> assertErrorMessage(BAD_REQUEST, responseEntity, Violation.asMaps(new Violation("operations", "must not leave the content blank"))),
+                () -> assertThat(factory.findById(saved.getId()).orElseThrow())
+                        .as("Note should be left as it was")
+                        .extracting(Note::getContent, Note::getVersion)
+                        .containsExactly(content, saved.getVersion())
+        );
+    }
+
     protected void assertErrorMessage(HttpStatus status, ResponseEntity<ErrorMessage> responseEntity, Object errors) {
         var body = responseEntity.getBody();
         assertAll(
@@ -0,0 +1,151 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
+import static com.github.jorgebsa.spring.demo.ws.NoteMediaTypes.APPLICATION_SMILE_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
+
+public class NoteControllerRepresentationTest extends ApplicationTests {
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @Test
+    void findPageAsSmile() throws IOException {
+        factory.insertNotes(30);
+        var headers = getAuthorizationHeader(SOME_USER);
+        headers.setAccept(MediaType.parseMediaTypes(APPLICATION_SMILE_VALUE));
+
+        var responseEntity = template.exchange("/notes", GET, new HttpEntity<Void>(headers), byte[].class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var resultPage = smileMapper.readValue(responseEntity.getBody(), NOTE_RESULT_PAGE_TYPE_REFERENCE);
+        assertAll(
+                () -> assertThat(responseEntity.getHeaders().getContentType())
+                        .as("Content type should be Smile")
+                        .isEqualTo(MediaType.parseMediaType(APPLICATION_SMILE_VALUE)),
+                () -> assertThat(resultPage.totalElements())
+                        .as("Total elements should match expected value")
+                        .isEqualTo(30),
+                () -> assertThat(resultPage.content())
+                        .as("Notes should be decoded from Smile")
+                        .hasSize(20)
+                        .allSatisfy(note -> assertThat(note.content()).startsWith("content of note #"))
+        );
+    }
+
+    @Test
+    void saveNoteFromCbor() throws IOException {
+        var headers = getAuthorizationHeader(SOME_USER);
+        headers.setContentType(APPLICATION_CBOR);
+        headers.setAccept(MediaType.parseMediaTypes(APPLICATION_SMILE_VALUE));
+        var body = cborMapper.writeValueAsBytes(new SaveNoteRequest("sent as CBOR"));
+
+        var responseEntity = template.exchange("/notes", POST, new HttpEntity<>(body, headers), byte[].class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(CREATED);
+
+        var response = smileMapper.readValue(responseEntity.getBody(), SaveNoteResponse.class);
+        assertAll(
+                () -> assertThat(response.content())
+                        .as("Content should be read from the CBOR body")
+                        .isEqualTo("sent as CBOR"),
+                () -> assertThat(factory.findById(response.id()))
+                        .as("Note should have been saved")
+                        .isPresent()
+        );
+    }
+
+    @Test
+    void findPageGzipped() throws IOException, InterruptedException {
+        factory.insertNotes(50);
+
+        var large = get("/notes?size=50");
+        var small = get("/notes?size=1");
+        assertAll(
+                () -> assertThat(large.statusCode()).isEqualTo(OK.value()),
+                () -> assertThat(large.headers().firstValue(HttpHeaders.ETAG))
+                        .as("Tags should be weak, since Tomcat does not compress responses with a strong one")
+                        .hasValueSatisfying(tag -> assertThat(tag).startsWith("W/\"")),
+                () -> assertThat(large.headers().firstValue(HttpHeaders.CONTENT_ENCODING))
+                        .as("Large responses should be gzipped")
+                        .hasValue("gzip"),
+                () -> assertThat(objectMapper.readValue(new GZIPInputStream(large.body()), NOTE_RESULT_PAGE_TYPE_REFERENCE).content())
+                        .as("Gzipped page should hold every note")
+                        .hasSize(50),
+                () -> assertThat(small.headers().firstValue(HttpHeaders.CONTENT_ENCODING))
+                        .as("Responses under the minimum size should not be compressed")
+                        .isEmpty()
+        );
+    }
+
+    @Test
+    void findNoteTaggedPerRepresentation() {
+        var saved = factory.insert(SOME_USER.username(), "tagged per representation");
+        var headers = getAuthorizationHeader(SOME_USER);
+        var json = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), byte[].class, saved.getId());
+        var eTag = json.getHeaders().getETag();
+
+        headers.setIfNoneMatch(eTag);
+        var revalidated = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), byte[].class, saved.getId());
+        headers.setAccept(MediaType.parseMediaTypes(APPLICATION_SMILE_VALUE));
+        var smile = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), byte[].class, saved.getId());
+
+        assertAll(
+                () -> assertThat(json.getHeaders().getVary())
+                        .as("Responses should vary by Accept")
+                        .contains(HttpHeaders.ACCEPT),
+                () -> assertThat(revalidated.getStatusCode()).isEqualTo(NOT_MODIFIED),
+                () -> assertThat(revalidated.getHeaders().getVary()).contains(HttpHeaders.ACCEPT),
+                () -> assertThat(smile.getStatusCode())
+                        .as("The JSON tag should not validate the Smile representation")
+                        .isEqualTo(OK),
+                () -> assertThat(smile.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType(APPLICATION_SMILE_VALUE)),
+                () -> assertThat(smile.getHeaders().getETag()).isNotEqualTo(eTag)
+        );
+    }
+
+    private HttpResponse<InputStream> get(String path) throws IOException, InterruptedException {
+        var authorization = getAuthorizationHeader(SOME_USER).getFirst(HttpHeaders.AUTHORIZATION);
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+}
@@ -1,10 +1,18 @@
 package com.github.jorgebsa.spring.demo.ws;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.jorgebsa.spring.demo.ApplicationTests;
 import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteSearchResult;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.NoteSuggestion;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
 import com.github.jorgebsa.spring.demo.service.NoteMapper;
 import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.ResultPage;
 import com.github.jorgebsa.spring.demo.util.UserData;
 import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
 import com.github.jorgebsa.spring.demo.validation.Violation;
@@ -16,25 +24,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.github.jorgebsa.spring.demo.util.UserData.ADMIN;
+import static com.github.jorgebsa.spring.demo.util.UserData.SOME_USER;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.FOUND;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.HttpStatus.OK;
 
 public class NoteControllerRetrievalTest extends ApplicationTests {
 
+    private static final TypeReference<ResultPage<NoteSearchResult>> SEARCH_RESULT_PAGE_TYPE_REFERENCE = new TypeReference<>() {
+    };
+
     @Autowired
     private NoteFactory factory;
 
     @Autowired
     private NoteMapper mapper;
 
+    @Autowired
+    private NoteCounters counters;
+
     @AfterEach
     void tearDown() {
         factory.deleteAll();
@@ -159,6 +179,38 @@ public class NoteControllerRetrievalTest extends ApplicationTests {
         );
     }
 
+    @Test
+    void findPageTotalFromCounters() throws JsonProcessingException {
+        var entity = new HttpEntity<Void>(getAuthorizationAndContentTypeHeaders(ADMIN));
+        factory.insertNotes(3);
+        template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest("counted content"), entity.getHeaders()), String.class);
+        factory.insertUncounted("random-user", "uncounted content");
+
+        var counted = totalElements(template.exchange("/notes", GET, entity, String.class).getBody());
+        var exact = totalElements(template.exchange("/notes?exact=true", GET, entity, String.class).getBody());
+        counters.reconcile();
+        var reconciled = totalElements(template.exchange("/notes", GET, entity, String.class).getBody());
+
+        assertAll(
+                () -> assertThat(counted)
+                        .as("Total should come from the counters, which missed the uncounted note")
+                        .isEqualTo(4),
+                () -> assertThat(exact)
+                        .as("Exact total should count every note")
+                        .isEqualTo(5),
+                () -> assertThat(reconciled)
+                        .as("Reconciliation should correct the counters")
+                        .isEqualTo(5),
+                () -> assertThat(counters.of("random-user"))
+                        .as("Reconciliation should correct the owner's counter")
+                        .isEqualTo(1)
+        );
+    }
+
+    private long totalElements(String body) throws JsonProcessingException {
+        return objectMapper.readValue(body, NOTE_RESULT_PAGE_TYPE_REFERENCE).totalElements();
+    }
+
     @ParameterizedTest
     @MethodSource("userDataSource")
     void findCustomPage(UserData userData) throws JsonProcessingException {
@@ -197,6 +249,275 @@ public class NoteControllerRetrievalTest extends ApplicationTests {
         );
     }
 
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void findSparsePage(UserData userData) throws JsonProcessingException {
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var savedNotes = factory.insertNotes(10);
+        var expectedContent = savedNotes.stream()
+                .map(note -> new NoteDTO(note.getId(), null, null, null, null, note.getVersion()))
+                .toList();
+
+        var responseEntity = template.exchange("/notes?fields={f}", GET, entity, String.class, "id,version");
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+        var resultPage = objectMapper.readValue(responseEntity.getBody(), NOTE_RESULT_PAGE_TYPE_REFERENCE);
+        var firstNote = objectMapper.readTree(responseEntity.getBody()).get("content").get(0);
+        assertAll(
+                () -> assertThat(resultPage.content())
+                        .as("Content should only have the requested fields")
+                        .containsExactlyElementsOf(expectedContent),
+                () -> assertThat(firstNote.fieldNames())
+                        .toIterable()
+                        .as("Fields that weren't requested should not be serialized")
+                        .containsExactlyInAnyOrder("id", "version")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void findSparseNoteById(UserData userData) {
+        var saved = factory.insert("random-user", "test content");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/{id}?fields={f}", GET, entity, NoteDTO.class, saved.getId(), "version,lastModifiedAt");
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+        assertThat(responseEntity.getBody())
+                .as("Only the requested fields should be present")
+                .isEqualTo(new NoteDTO(null, null, null, null, saved.getLastModifiedAt().toEpochMilli(), saved.getVersion()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void findPageWithInvalidFields(UserData userData) {
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var expectedViolation = Violation.asMaps(new Violation("fields", "unsupported value: title"));
+        var responseEntity = template.exchange("/notes?fields={f}", GET, entity, ErrorMessage.class, "id,title");
+        assertErrorMessage(BAD_REQUEST, responseEntity, expectedViolation);
+    }
+
+    @Test
+    void searchNotes() throws JsonProcessingException {
+        var best = factory.insert("random-user", "apples and more apples, only apples");
+        var good = factory.insert(SOME_USER.username(), "apples and oranges");
+        factory.insert("random-user", "nothing but oranges");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+
+        var responseEntity = template.exchange("/notes/search?q={q}&fields={f}", GET, entity, String.class, "apple", "id");
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+        var resultPage = objectMapper.readValue(responseEntity.getBody(), SEARCH_RESULT_PAGE_TYPE_REFERENCE);
+
+        assertAll(
+                () -> assertThat(resultPage.totalElements())
+                        .as("Only notes mentioning apples should match")
+                        .isEqualTo(2),
+                () -> assertThat(resultPage.content())
+                        .as("Matches should be ordered by relevance")
+                        .extracting(result -> result.note().id())
+                        .containsExactly(best.getId(), good.getId()),
+                () -> assertThat(resultPage.content())
+                        .as("Matches should carry their score and only the selected fields")
+                        .allSatisfy(result -> {
+                            assertThat(result.score()).isPositive();
+                            assertThat(result.note().content()).isNull();
+                        })
+        );
+    }
+
+    @Test
+    void searchMyNotes() throws JsonProcessingException {
+        factory.insert("random-user", "shared word");
+        var mine = factory.insert(SOME_USER.username(), "shared word");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+
+        var responseEntity = template.exchange("/notes/search?q={q}&mine=true", GET, entity, String.class, "word");
+        var resultPage = objectMapper.readValue(responseEntity.getBody(), SEARCH_RESULT_PAGE_TYPE_REFERENCE);
+
+        assertThat(resultPage.content())
+                .as("Only the requester's notes should match")
+                .extracting(NoteSearchResult::note)
+                .containsExactly(mapper.toDTO(mine));
+    }
+
+    @Test
+    void suggestNotes() {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var created = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest("Plan the Zanzibar trip"), headers), SaveNoteResponse.class);
+        template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest("zanzibar"), getAuthorizationAndContentTypeHeaders(ADMIN)), SaveNoteResponse.class);
+
+        var mine = template.exchange("/notes/suggest?prefix={p}&mine=true", GET, new HttpEntity<Void>(headers), NoteSuggestion[].class, "zanz");
+        var anywhere = template.exchange("/notes/suggest?prefix={p}&mine=true&substring=true", GET, new HttpEntity<Void>(headers), NoteSuggestion[].class, "nzib");
+        var tooShort = template.exchange("/notes/suggest?prefix={p}", GET, new HttpEntity<Void>(headers), ErrorMessage.class, "za");
+
+        assertAll(
+                () -> assertThat(mine.getBody())
+                        .as("Requester's notes with a word starting with the prefix should be suggested")
+                        .containsExactly(new NoteSuggestion(created.getBody().id(), SOME_USER.username(), "Zanzibar trip")),
+                () -> assertThat(anywhere.getBody())
+                        .as("Substring lookups should match inside words")
+                        .containsExactly(new NoteSuggestion(created.getBody().id(), SOME_USER.username(), "Zanzibar trip")),
+                () -> assertThat(tooShort.getStatusCode())
+                        .as("Prefixes shorter than 3 characters should be rejected")
+                        .isEqualTo(BAD_REQUEST)
+        );
+    }
+
+    @Test
+    void suggestionsFollowChangesMadeElsewhere() {
+        var headers = getAuthorizationAndContentTypeHeaders(SOME_USER);
+        var created = template.exchange("/notes", POST, new HttpEntity<>(new SaveNoteRequest("Plan the Zanzibar trip"), headers), SaveNoteResponse.class);
+
+        /* written straight to the database, the way another instance would */
+        var note = factory.findById(created.getBody().id()).orElseThrow();
+        note.setContent("Buy a kilim rug");
+        factory.save(note);
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertAll(
+                () -> assertThat(template.exchange("/notes/suggest?prefix={p}", GET, new HttpEntity<Void>(headers), NoteSuggestion[].class, "kilim").getBody())
+                        .as("Content changed elsewhere should eventually be suggested")
+                        .extracting(NoteSuggestion::id)
+                        .containsExactly(note.getId()),
+                () -> assertThat(template.exchange("/notes/suggest?prefix={p}", GET, new HttpEntity<Void>(headers), NoteSuggestion[].class, "zanz").getBody())
+                        .as("Content replaced elsewhere should eventually no longer be suggested")
+                        .isEmpty()
+        ));
+    }
+
+    @Test
+    void searchWithBlankQuery() {
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(SOME_USER));
+        var responseEntity = template.exchange("/notes/search?q={q}", GET, entity, ErrorMessage.class, " ");
+        assertThat(responseEntity.getStatusCode()).isEqualTo(BAD_REQUEST);
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void scrollThroughAllNotes(UserData userData) {
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var count = 30;
+        var savedNotes = factory.insertNotes(count);
+        var expectedContent = savedNotes.stream().map(mapper::toDTO).toList();
+
+        var scrolled = new ArrayList<NoteDTO>();
+        var slices = 0;
+        var responseEntity = template.exchange("/notes/scroll?size={s}", GET, entity, NoteSlice.class, 12);
+        while (true) {
+            assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+            var slice = responseEntity.getBody();
+            assertThat(slice).isNotNull();
+            scrolled.addAll(slice.content());
+            slices++;
+            if (slice.nextCursor() == null) {
+                break;
+            }
+            responseEntity = template.exchange("/notes/scroll?size={s}&cursor={c}", GET, entity, NoteSlice.class, 12, slice.nextCursor());
+        }
+
+        var totalSlices = slices;
+        assertAll(
+                () -> assertThat(totalSlices)
+                        .as("Number of slices should match expected value")
+                        .isEqualTo(3),
+                () -> assertThat(scrolled)
+                        .as("Content should match expected value")
+                        .containsExactlyElementsOf(expectedContent)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void scrollWithInvalidCursor(UserData userData) {
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var expectedViolation = Violation.asMaps(new Violation("cursor", "invalid value"));
+        var responseEntity = template.exchange("/notes/scroll?cursor={c}", GET, entity, ErrorMessage.class, "not-a-cursor");
+        assertErrorMessage(BAD_REQUEST, responseEntity, expectedViolation);
+    }
+
+    @Test
+    void findByIdNotModified() {
+        var saved = factory.insert("random-user", "unchanged content");
+        var headers = getAuthorizationHeader(ADMIN);
+
+        var first = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), NoteDTO.class, saved.getId());
+        var eTag = first.getHeaders().getETag();
+
+        headers.setIfNoneMatch(eTag);
+        var second = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), NoteDTO.class, saved.getId());
+        var sparse = template.exchange("/notes/{id}?fields={f}", GET, new HttpEntity<Void>(headers), NoteDTO.class, saved.getId(), "id");
+
+        assertAll(
+                () -> assertThat(eTag)
+                        .as("Response should carry an ETag")
+                        .isNotNull()
+                        .matches("(W/)?\".+\""),
+                () -> assertThat(second.getStatusCode())
+                        .as("Unchanged note should not be sent again")
+                        .isEqualTo(NOT_MODIFIED),
+                () -> assertThat(second.getHeaders().getETag())
+                        .as("Not modified response should carry the same ETag")
+                        .isEqualTo(eTag),
+                () -> assertThat(second.getBody()).isNull(),
+                () -> assertThat(sparse.getStatusCode())
+                        .as("Different fields should not match the ETag of all fields")
+                        .isEqualTo(OK)
+        );
+    }
+
+    @Test
+    void findByIdModifiedSinceETag() {
+        var saved = factory.insert("random-user", "content before");
+        var headers = getAuthorizationHeader(ADMIN);
+
+        var first = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), NoteDTO.class, saved.getId());
+        saved.setContent("content after");
+        factory.save(saved);
+
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            var second = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(headers), NoteDTO.class, saved.getId());
+            assertAll(
+                    () -> assertThat(second.getStatusCode())
+                            .as("Changed note should be sent again")
+                            .isEqualTo(OK),
+                    () -> assertThat(second.getHeaders().getETag())
+                            .as("Changed note should carry a new ETag")
+                            .isNotEqualTo(first.getHeaders().getETag()),
+                    () -> assertThat(second.getBody())
+                            .extracting(NoteDTO::content)
+                            .isEqualTo("content after")
+            );
+        });
+    }
+
+    @Test
+    void findPageNotModifiedUntilNoteChanges() {
+        var notes = factory.insertNotes(5);
+        var headers = getAuthorizationHeader(ADMIN);
+
+        var first = template.exchange("/notes?fields={f}", GET, new HttpEntity<Void>(headers), String.class, "content");
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        var unchanged = template.exchange("/notes?fields={f}", GET, new HttpEntity<Void>(headers), String.class, "content");
+
+        var changed = notes.get(2);
+        changed.setContent("changed content");
+        factory.save(changed);
+        var afterChange = template.exchange("/notes?fields={f}", GET, new HttpEntity<Void>(headers), String.class, "content");
+
+        assertAll(
+                () -> assertThat(unchanged.getStatusCode())
+                        .as("Unchanged page should not be sent again")
+                        .isEqualTo(NOT_MODIFIED),
+                () -> assertThat(afterChange.getStatusCode())
+                        .as("Page should be sent again once one of its notes changed")
+                        .isEqualTo(OK),
+                () -> assertThat(afterChange.getHeaders().getETag())
+                        .isNotEqualTo(first.getHeaders().getETag())
+        );
+    }
+
     @Test
     void findPageWithoutToken() {
         var responseEntity = template.exchange("/notes", GET, null, String.class);
@@ -0,0 +1,65 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/*
+ * Compares the wire size and encoding time of a large page of notes in each
+ * representation the API negotiates. Times are logged rather than asserted,
+ * they depend too much on the machine running the build.
+ */
+class NoteRepresentationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteRepresentationTest.class);
+
+    private static final int ROUNDS = 50;
+
+    private final List<NoteDTO> notes = IntStream.range(0, 1_000)
+            .mapToObj(i -> new NoteDTO("61d5c3b2a1f0e9d8c7b6a5" + String.format("%02x", i % 256), "user-" + (i % 10),
+                    "content of note #" + i + ", with a few more words to look like a real note",
+                    1_640_995_200_000L + i, 1_640_995_200_000L + 2L * i, (long) i % 5))
+            .toList();
+
+    @Test
+    void binaryRepresentationsAreSmaller() throws JsonProcessingException {
+        var json = measure("JSON", new ObjectMapper());
+        var smile = measure("Smile", new ObjectMapper(new SmileFactory()));
+        var cbor = measure("CBOR", new ObjectMapper(new CBORFactory()));
+
+        assertAll(
+                () -> assertThat(smile)
+                        .as("Smile should be smaller than JSON")
+                        .isLessThan(json),
+                () -> assertThat(cbor)
+                        .as("CBOR should be smaller than JSON")
+                        .isLessThan(json)
+        );
+    }
+
+    private int measure(String format, ObjectMapper mapper) throws JsonProcessingException {
+        var bytes = mapper.writeValueAsBytes(notes);
+        assertThat(mapper.readValue(bytes, NoteDTO[].class))
+                .as("%s should round trip", format)
+                .containsExactlyElementsOf(notes);
+
+        var start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(notes);
+        }
+        var micros = (System.nanoTime() - start) / ROUNDS / 1_000;
+        log.info("{} page of [{}] notes: [{}] bytes, encoded in [{}] us", format, notes.size(), bytes.length, micros);
+        return bytes.length;
+    }
+}
@@ -0,0 +1,254 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.ImportError;
+import com.github.jorgebsa.spring.demo.base.ImportSummary;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.dao.Note;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.UserData;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.MULTI_STATUS;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+
+public class NoteTransferControllerTest extends ApplicationTests {
+
+    @Autowired
+    private NoteFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void exportAllNotes(UserData userData) throws JsonProcessingException {
+        var saved = factory.insertNotes(20);
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/export", GET, entity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var notes = parseLines(responseEntity.getBody());
+        assertAll(
+                () -> assertThat(responseEntity.getHeaders().getContentType())
+                        .as("Content type should be NDJSON")
+                        .isEqualTo(APPLICATION_NDJSON),
+                () -> assertThat(notes)
+                        .as("Every note should be exported")
+                        .extracting(NoteDTO::id)
+                        .containsExactlyInAnyOrderElementsOf(saved.stream().map(note -> note.getId()).toList()),
+                () -> assertThat(notes)
+                        .as("Notes should be exported in order of last modification")
+                        .extracting(NoteDTO::lastModifiedAt)
+                        .isSorted()
+        );
+    }
+
+    @Test
+    void exportFilteredNotes() throws JsonProcessingException {
+        factory.insertNotes(12, 3);
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(UserData.SOME_USER));
+
+        var byOwner = template.exchange("/notes/export?owner=user-0", GET, entity, String.class);
+        var future = Instant.now().plusSeconds(3600).toEpochMilli();
+        var bySince = template.exchange("/notes/export?modifiedSince={since}", GET, entity, String.class, future);
+
+        var ownerNotes = parseLines(byOwner.getBody());
+        assertAll(
+                () -> assertThat(ownerNotes)
+                        .as("Only the owner's notes should be exported")
+                        .hasSize(4)
+                        .allSatisfy(note -> assertThat(note.username()).isEqualTo("user-0")),
+                () -> assertThat(bySince.getBody())
+                        .as("No note was modified in the future")
+                        .isNullOrEmpty()
+        );
+    }
+
+    @Test
+    void exportGzippedNotes() throws IOException, InterruptedException {
+        factory.insertNotes(30);
+        var authorization = getAuthorizationHeader(UserData.SOME_USER).getFirst(HttpHeaders.AUTHORIZATION);
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/notes/export"))
+                .header(HttpHeaders.AUTHORIZATION, authorization)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .build();
+
+        var response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(OK.value());
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING))
+                .as("Response should be gzipped")
+                .hasValue("gzip");
+
+        assertThat(parseLines(gunzip(response.body())))
+                .as("Every note should be exported")
+                .hasSize(30);
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void importNotes(UserData userData) {
+        var lines = IntStream.range(0, 1_200)
+                .mapToObj(i -> "{\"content\":\"imported note #" + i + "\"}")
+                .collect(Collectors.joining("\n", "", "\n"));
+        var headers = getAuthorizationHeader(userData);
+        headers.setContentType(APPLICATION_NDJSON);
+
+        var responseEntity = template.exchange("/notes/import", POST, new HttpEntity<>(lines, headers), ImportSummary.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(CREATED);
+
+        var summary = responseEntity.getBody();
+        assertThat(summary).isNotNull();
+        assertAll(
+                () -> assertThat(summary.imported())
+                        .as("Every line should have been imported, across several batches")
+                        .isEqualTo(1_200),
+                () -> assertThat(summary.failed()).isZero(),
+                () -> assertThat(summary.errors()).isEmpty(),
+                () -> assertThat(factory.findAll())
+                        .as("Every note should belong to the requester")
+                        .hasSize(1_200)
+                        .allSatisfy(note -> assertThat(note.getUsername()).isEqualTo(userData.username()))
+        );
+    }
+
+    @Test
+    void importNotesWithInvalidLines() {
+        var lines = String.join("\n",
+                "{\"content\":\"first\"}",
+                "",
+                "{\"content\":\" \"}",
+                "{\"content\":",
+                "{\"content\":\"last\"}"
+        );
+        var headers = getAuthorizationHeader(UserData.SOME_USER);
+        headers.setContentType(APPLICATION_NDJSON);
+
+        var responseEntity = template.exchange("/notes/import", POST, new HttpEntity<>(lines, headers), ImportSummary.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(MULTI_STATUS);
+
+        var summary = responseEntity.getBody();
+        assertThat(summary).isNotNull();
+        assertAll(
+                () -> assertThat(summary.lines()).isEqualTo(5),
+                () -> assertThat(summary.imported())
+                        .as("Valid lines should be imported regardless of the invalid ones")
+                        .isEqualTo(2),
+                () -> assertThat(summary.failed()).isEqualTo(2),
+                () -> assertThat(summary.errors())
+                        .as("Each invalid line should be reported by its number")
+                        .extracting(ImportError::line)
+                        .containsExactly(3L, 4L),
+                () -> assertThat(summary.errors().get(0).status()).isEqualTo(BAD_REQUEST.value()),
+                () -> assertThat(summary.errors().get(0).errors())
+                        .containsExactly(new Violation("content", "must not be blank")),
+                () -> assertThat(summary.errorsTruncated()).isFalse(),
+                () -> assertThat(factory.findAll())
+                        .extracting(note -> note.getContent())
+                        .containsExactlyInAnyOrder("first", "last")
+        );
+    }
+
+    @Test
+    void importNotesWithOverlongLine() {
+        var lines = String.join("\r\n",
+                "{\"content\":\"first\"}",
+                "{\"content\":\"" + "x".repeat(1_100_000) + "\"}",
+                "{\"content\":\"last\"}"
+        );
+        var headers = getAuthorizationHeader(UserData.SOME_USER);
+        headers.setContentType(APPLICATION_NDJSON);
+
+        var responseEntity = template.exchange("/notes/import", POST, new HttpEntity<>(lines, headers), ImportSummary.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(MULTI_STATUS);
+
+        var summary = responseEntity.getBody();
+        assertThat(summary).isNotNull();
+        assertAll(
+                () -> assertThat(summary.lines()).isEqualTo(3),
+                () -> assertThat(summary.errors())
+                        .as("The overlong line should be reported rather than read whole")
+                        .containsExactly(new ImportError(2L, PAYLOAD_TOO_LARGE.value(), List.of(new Violation("line", "longer than 1048576 characters")))),
+                () -> assertThat(factory.findAll())
+                        .as("The lines around it should still be imported")
+                        .extracting(Note::getContent)
+                        .containsExactlyInAnyOrder("first", "last")
+        );
+    }
+
+    @Test
+    void importGzippedNotes() throws IOException {
+        var lines = IntStream.range(0, 10)
+                .mapToObj(i -> "{\"content\":\"gzipped note #" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+        var headers = getAuthorizationHeader(UserData.SOME_USER);
+        headers.setContentType(APPLICATION_NDJSON);
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        var responseEntity = template.exchange("/notes/import", POST, new HttpEntity<>(gzip(lines), headers), ImportSummary.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(CREATED);
+        assertThat(factory.findAll()).hasSize(10);
+    }
+
+    private List<NoteDTO> parseLines(String body) throws JsonProcessingException {
+        var notes = new ArrayList<NoteDTO>();
+        if (body == null) {
+            return notes;
+        }
+        for (var line : body.split("\n")) {
+            if (!line.isBlank()) {
+                notes.add(objectMapper.readValue(line, NoteDTO.class));
+            }
+        }
+        return notes;
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String gunzip(InputStream body) throws IOException {
+        try (var in = new GZIPInputStream(body)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.github.jorgebsa.spring.demo.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.jorgebsa.spring.demo.ApplicationTests;
+import com.github.jorgebsa.spring.demo.base.NoteDTO;
+import com.github.jorgebsa.spring.demo.base.NoteSlice;
+import com.github.jorgebsa.spring.demo.base.SaveNoteRequest;
+import com.github.jorgebsa.spring.demo.base.SaveNoteResponse;
+import com.github.jorgebsa.spring.demo.base.UpdateNoteRequest;
+import com.github.jorgebsa.spring.demo.dao.NoteCounters;
+import com.github.jorgebsa.spring.demo.util.NoteFactory;
+import com.github.jorgebsa.spring.demo.util.UserData;
+import com.github.jorgebsa.spring.demo.validation.ErrorMessage;
+import com.github.jorgebsa.spring.demo.validation.Violation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.springframework.http.HttpMethod.DELETE;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpMethod.PUT;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+@ActiveProfiles("reactive")
+@TestPropertySource(properties = "spring.main.web-application-type=reactive")
+public class ReactiveNoteControllerTest extends ApplicationTests {
+
+    @Autowired
+    private NoteFactory factory;
+
+    @Autowired
+    private NoteCounters counters;
+
+    @AfterEach
+    void tearDown() {
+        factory.deleteAll();
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void saveAndFindNote(UserData userData) {
+        var request = new SaveNoteRequest("some reactive content");
+        var saveEntity = new HttpEntity<>(request, getAuthorizationHeader(userData));
+
+        var saved = template.exchange("/notes", POST, saveEntity, SaveNoteResponse.class);
+        assertThat(saved.getStatusCode()).isEqualTo(CREATED);
+        var id = saved.getBody().id();
+
+        var found = template.exchange("/notes/{id}", GET, new HttpEntity<Void>(getAuthorizationHeader(userData)), NoteDTO.class, id);
+        assertThat(found.getStatusCode()).isEqualTo(OK);
+
+        var body = found.getBody();
+        assertThat(body).isNotNull();
+        assertAll(
+                () -> assertThat(body.username())
+                        .as("Note's username should be the requester's")
+                        .isEqualTo(userData.username()),
+                () -> assertThat(body.content())
+                        .as("Note's content should match the request")
+                        .isEqualTo(request.content()),
+                () -> assertThat(body.version())
+                        .as("Note's version should be 1 as this is a new Note")
+                        .isEqualTo(1L),
+                () -> assertMillisIsRecent(body.createdAt())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void saveNoteWithInvalidPayload(UserData userData) {
+        var httpEntity = new HttpEntity<>("{\"content\":\" \"}", getAuthorizationAndContentTypeHeaders(userData));
+
+        var responseEntity = template.exchange("/notes", POST, httpEntity, ErrorMessage.class);
+        assertErrorMessage(BAD_REQUEST, responseEntity, Violation.asMaps(new Violation("content", "must not be blank")));
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void findPage(UserData userData) throws JsonProcessingException {
+        factory.insertNotes(15);
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes?page=1&size=10", GET, entity, String.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+
+        var page = objectMapper.readValue(responseEntity.getBody(), NOTE_RESULT_PAGE_TYPE_REFERENCE);
+        assertAll(
+                () -> assertThat(page.content())
+                        .as("Last page should only hold the remaining notes")
+                        .hasSize(5),
+                () -> assertThat(page.totalElements())
+                        .as("Total elements should match the number of notes")
+                        .isEqualTo(15),
+                () -> assertThat(page.number())
+                        .as("Page number should match the requested one")
+                        .isEqualTo(1)
+        );
+    }
+
+    @Test
+    void scrollThroughAllNotes() {
+        factory.insertNotes(25);
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(UserData.SOME_USER));
+
+        var ids = new ArrayList<String>();
+        String cursor = null;
+        do {
+            var url = cursor == null ? "/notes/scroll?size=10" : "/notes/scroll?size=10&cursor=" + cursor;
+            var responseEntity = template.exchange(url, GET, entity, NoteSlice.class);
+            assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+            var slice = responseEntity.getBody();
+            slice.content().forEach(note -> ids.add(note.id()));
+            cursor = slice.nextCursor();
+        } while (cursor != null);
+
+        assertThat(ids)
+                .as("Every note should be returned exactly once")
+                .hasSize(25)
+                .doesNotHaveDuplicates();
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void updateNoteWithIncorrectVersion(UserData userData) {
+        var saved = factory.insert(userData.username(), "content");
+        var request = new UpdateNoteRequest("new content", saved.getVersion() + 1);
+        var httpEntity = new HttpEntity<>(request, getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/{id}", PUT, httpEntity, ErrorMessage.class, saved.getId());
+        assertErrorMessage(CONFLICT, responseEntity, Violation.asMaps(new Violation("version", "incorrect value: " + request.version())));
+    }
+
+    @Test
+    void deleteNoteWhenDifferentUser() {
+        var saved = factory.insert("different-user", "very interesting content indeed");
+        var id = saved.getId();
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(UserData.SOME_USER));
+
+        var responseEntity = template.exchange("/notes/{id}", DELETE, entity, ErrorMessage.class, id);
+        assertErrorMessage(FORBIDDEN, responseEntity, Violation.asMaps(new Violation("id", "note [" + id + "] does not belong to you")));
+        assertThat(factory.findById(id)).isPresent();
+    }
+
+    @Test
+    void deleteNoteOfDifferentUserAsAdmin() {
+        var saved = factory.insert("different-user", "very interesting content indeed");
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(UserData.ADMIN));
+
+        var responseEntity = template.exchange("/notes/{id}", DELETE, entity, NoteDTO.class, saved.getId());
+        assertThat(responseEntity.getStatusCode()).isEqualTo(OK);
+        assertThat(factory.findById(saved.getId())).isEmpty();
+    }
+
+    @Test
+    void saveAndRemoveNoteUpdateCounters() {
+        var entity = new HttpEntity<>(new SaveNoteRequest("counted content"), getAuthorizationHeader(UserData.SOME_USER));
+        var before = counters.of(UserData.SOME_USER.username());
+
+        var saved = template.exchange("/notes", POST, entity, SaveNoteResponse.class).getBody();
+        var afterSave = counters.of(UserData.SOME_USER.username());
+        template.exchange("/notes/{id}", DELETE, new HttpEntity<Void>(getAuthorizationHeader(UserData.SOME_USER)), NoteDTO.class, saved.id());
+
+        assertAll(
+                () -> assertThat(afterSave)
+                        .as("Saving a note should count it")
+                        .isEqualTo(before + 1),
+                () -> assertThat(counters.of(UserData.SOME_USER.username()))
+                        .as("Removing a note should uncount it")
+                        .isEqualTo(before)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("userDataSource")
+    void deleteByIdWhenNotFound(UserData userData) {
+        var entity = new HttpEntity<Void>(getAuthorizationHeader(userData));
+
+        var responseEntity = template.exchange("/notes/this-wont-be-found", DELETE, entity, NoteDTO.class);
+        assertThat(responseEntity.getStatusCode()).isEqualTo(NOT_FOUND);
+    }
+
+    @Test
+    void findPageWithoutToken() {
+        var responseEntity = template.exchange("/notes", GET, null, String.class);
+        assertThat(responseEntity.getStatusCode())
+                .as("status code should be UNAUTHORIZED")
+                .isEqualTo(UNAUTHORIZED);
+    }
+
+}